@@ -4,19 +4,35 @@ import com.quanttrading.datasource.DataSource;
 import com.quanttrading.factory.DataSourceFactory;
 import com.quanttrading.factory.PreprocessorFactory;
 import com.quanttrading.factory.StrategyFactory;
+import com.quanttrading.model.PriceSeries;
 import com.quanttrading.model.ProcessedData;
 import com.quanttrading.model.StockData;
 import com.quanttrading.model.TradeSignal;
 import com.quanttrading.preprocessing.DataPreprocessor;
 import com.quanttrading.strategy.TradingStrategy;
 import com.quanttrading.visualization.ChartGenerator;
+import com.quanttrading.visualization.ChartRenderer;
 import com.quanttrading.ml.MachineLearningAlgorithm;
+import com.quanttrading.ml.ModelRegistry;
+import com.quanttrading.ml.PermutationImportance;
 import com.quanttrading.ml.factory.MLAlgorithmFactory;
+import com.quanttrading.ml.tuning.HyperparameterTuner;
+import com.quanttrading.ml.tuning.TimeSeriesCrossValidator;
+import com.quanttrading.ml.tuning.TuningResult;
+import com.quanttrading.strategy.impl.FeatureCache;
 import com.quanttrading.strategy.impl.MachineLearningStrategy;
+import com.quanttrading.evaluation.BacktestResult;
+import com.quanttrading.evaluation.BootstrapAnalyzer;
+import com.quanttrading.evaluation.EvaluationParameters;
+import com.quanttrading.evaluation.ExecutionSimulator;
+import com.quanttrading.evaluation.SlippageModel;
 import com.quanttrading.evaluation.StrategyEvaluator;
+import org.jfree.chart.JFreeChart;
+import org.nd4j.linalg.factory.Nd4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.time.LocalDate;
@@ -36,6 +52,16 @@ public class TradingSystem {
             // 1. 加载配置
             Properties props = loadProperties();
 
+            // 无窗口模式必须在任何AWT类初始化之前设置
+            boolean headless = Boolean.parseBoolean(props.getProperty("visualization.headless", "false"));
+            if (headless) {
+                System.setProperty("java.awt.headless", "true");
+            }
+            // 无窗口模式下各图表先收集为渲染任务，最后一起批量渲染
+            List<ChartRenderer.Job> chartJobs = headless ? new ArrayList<>() : null;
+            ChartGenerator.setMaxPoints(Integer.parseInt(props.getProperty(
+                    "visualization.max_points", String.valueOf(ChartGenerator.DEFAULT_MAX_POINTS))));
+
             // 2. 获取交易参数
             String symbol = props.getProperty("trading.symbol", "AAPL");
             LocalDate startDate = LocalDate.parse(
@@ -50,7 +76,8 @@ public class TradingSystem {
 
             // 4. 获取原始数据
             logger.info("Fetching historical data for {} from {} to {}", symbol, startDate, endDate);
-            List<StockData> rawData = dataSource.fetchHistoricalData(symbol, startDate, endDate);
+            PriceSeries series = dataSource.fetchSeries(symbol, startDate, endDate);
+            List<StockData> rawData = series.asList();
             logger.info("Retrieved {} data points", rawData.size());
 
             // 5. 初始化预处理器
@@ -65,7 +92,7 @@ public class TradingSystem {
 
             if ("ml".equals(strategyType) || "machine_learning".equals(strategyType)) {
                 // 使用机器学习策略
-                signals = executeMLStrategy(props, rawData, processedData);
+                signals = executeMLStrategy(props, rawData, processedData, chartJobs);
             } else {
                 // 使用传统策略
                 signals = executeTraditionalStrategy(props, rawData, processedData);
@@ -74,15 +101,25 @@ public class TradingSystem {
             // 8. 策略评估
             boolean performEvaluation = Boolean.parseBoolean(props.getProperty("evaluation.enabled", "true"));
             if (performEvaluation) {
-                Map<String, Object> evaluationParams = getEvaluationParameters(props);
-                Map<String, Double> evaluationResults = StrategyEvaluator.evaluateStrategy(rawData, signals, evaluationParams);
+                ExecutionSimulator simulator = initExecutionSimulator(props);
+                BacktestResult backtest = simulator.simulate(series, signals);
+                Map<String, Double> evaluationResults = StrategyEvaluator.evaluateBacktest(backtest);
                 StrategyEvaluator.printEvaluationResults(evaluationResults);
+
+                if (Boolean.parseBoolean(props.getProperty("evaluation.bootstrap.enabled", "false"))) {
+                    bootstrapEvaluation(props, backtest);
+                }
             }
 
             // 9. 可视化
             boolean showChart = Boolean.parseBoolean(props.getProperty("visualization.show_chart", "true"));
             if (showChart) {
-                visualizeResults(props, rawData, signals);
+                visualizeResults(props, rawData, signals, chartJobs);
+            }
+
+            // 10. 无窗口模式下批量渲染全部图表
+            if (chartJobs != null) {
+                renderCharts(props, chartJobs);
             }
 
         } catch (Exception e) {
@@ -170,21 +207,38 @@ public class TradingSystem {
     /**
      * 执行机器学习策略
      */
-    private static Map<LocalDate, TradeSignal> executeMLStrategy(Properties props, List<StockData> rawData, List<ProcessedData> processedData) {
+    private static Map<LocalDate, TradeSignal> executeMLStrategy(Properties props, List<StockData> rawData,
+                                                                 List<ProcessedData> processedData,
+                                                                 List<ChartRenderer.Job> chartJobs) {
 
         // 创建机器学习算法
         String algorithmType = props.getProperty("ml.algorithm", "randomforest");
         MachineLearningAlgorithm algorithm = createMLAlgorithm(props, algorithmType);
 
+        // 超参数搜索（可选）
+        int lookbackWindow = Integer.parseInt(props.getProperty("ml.lookback_window", "10"));
+        if (Boolean.parseBoolean(props.getProperty("ml.tuning.enabled", "false"))) {
+            Map<String, Object> tunedParams = tuneHyperparameters(props, algorithmType, algorithm, rawData, lookbackWindow);
+            Object tunedLookback = tunedParams.remove(HyperparameterTuner.LOOKBACK_WINDOW);
+            if (tunedLookback != null) {
+                lookbackWindow = ((Number) tunedLookback).intValue();
+            }
+            algorithm.setParameters(tunedParams);
+        }
+
         // 创建机器学习策略
         MachineLearningStrategy mlStrategy = new MachineLearningStrategy(algorithm);
 
         // 设置策略参数
         Map<String, Double> strategyParams = new HashMap<>();
-        strategyParams.put("lookbackWindow", Double.parseDouble(props.getProperty("ml.lookback_window", "10")));
+        strategyParams.put("lookbackWindow", (double) lookbackWindow);
         strategyParams.put("buyThreshold", Double.parseDouble(props.getProperty("ml.buy_threshold", "0.01")));
         strategyParams.put("sellThreshold", Double.parseDouble(props.getProperty("ml.sell_threshold", "-0.01")));
+        strategyParams.put("featureCacheCapacity", Double.parseDouble(props.getProperty("ml.feature_cache.capacity", "512")));
+        strategyParams.put("predictionHistoryCapacity", Double.parseDouble(props.getProperty("ml.prediction_history.capacity", "4096")));
         mlStrategy.setParameters(strategyParams);
+        mlStrategy.setFeatureCacheEvictionPolicy(FeatureCache.EvictionPolicy.valueOf(
+                props.getProperty("ml.feature_cache.eviction_policy", "lru").toUpperCase()));
 
         // 设置特征名称（可选）
         String featureNamesStr = props.getProperty("ml.feature_names", "");
@@ -193,6 +247,23 @@ public class TradingSystem {
             mlStrategy.setFeatureNames(featureNames);
         }
 
+        // 设置模型缓存（可选）
+        if (Boolean.parseBoolean(props.getProperty("ml.model_cache.enabled", "false"))) {
+            String cacheDirectory = props.getProperty("ml.model_cache.directory", "models/cache");
+            long maxSizeBytes = Long.parseLong(props.getProperty("ml.model_cache.max_size_mb", "512")) * 1024 * 1024;
+            mlStrategy.setModelRegistry(new ModelRegistry(cacheDirectory, maxSizeBytes));
+        }
+
+        // 设置置换特征重要性（算法自身不提供重要性时使用）
+        if (Boolean.parseBoolean(props.getProperty("ml.importance.enabled", "true"))) {
+            PermutationImportance permutationImportance = new PermutationImportance(
+                    Integer.parseInt(props.getProperty("ml.importance.num_repeats", "3")),
+                    Long.parseLong(props.getProperty("ml.importance.seed", "42")),
+                    Integer.parseInt(props.getProperty("ml.importance.num_threads", "0")));
+            mlStrategy.setPermutationImportance(permutationImportance,
+                    Double.parseDouble(props.getProperty("ml.importance.holdout_fraction", "0.2")));
+        }
+
         // 训练模型
         logger.info("Training machine learning model...");
         mlStrategy.trainModel(rawData);
@@ -206,7 +277,7 @@ public class TradingSystem {
                     Math.min(i + 1, processedData.size() - 1),
                     processedData.size());
 
-            TradeSignal signal = mlStrategy.generateSignal(current, history);
+            TradeSignal signal = mlStrategy.generateSignal(i, current, history);
 
             if (signal != TradeSignal.HOLD) {
                 signals.put(current.getDate(), signal);
@@ -219,13 +290,131 @@ public class TradingSystem {
         boolean showVisualization = Boolean.parseBoolean(props.getProperty("ml.show_visualization", "true"));
         if (showVisualization) {
             logger.info("Generating machine learning visualizations...");
-            mlStrategy.visualizePredictions(rawData);
-            mlStrategy.visualizeFeatureImportance();
+            if (chartJobs != null) {
+                String symbol = props.getProperty("trading.symbol", "AAPL");
+                chartJobs.add(mlStrategy.predictionChartJob(rawData, symbol + "_ml_predictions"));
+                ChartRenderer.Job importanceJob = mlStrategy.featureImportanceChartJob(symbol + "_feature_importance");
+                if (importanceJob != null) {
+                    chartJobs.add(importanceJob);
+                }
+            } else {
+                mlStrategy.visualizePredictions(rawData);
+                mlStrategy.visualizeFeatureImportance();
+            }
         }
 
         return signals;
     }
 
+    /**
+     * 对机器学习算法做时间序列交叉验证的超参数搜索
+     * 搜索空间由ml.tuning.grid.<参数名>=值1,值2,...配置
+     * @return 最优的超参数（可能包含lookbackWindow），没有可用结果时为空
+     */
+    private static Map<String, Object> tuneHyperparameters(Properties props, String algorithmType,
+                                                           MachineLearningAlgorithm algorithm,
+                                                           List<StockData> rawData, int lookbackWindow) {
+        TimeSeriesCrossValidator validator = new TimeSeriesCrossValidator(
+                TimeSeriesCrossValidator.Mode.valueOf(props.getProperty("ml.tuning.cv", "expanding_window").toUpperCase()),
+                Integer.parseInt(props.getProperty("ml.tuning.folds", "5")),
+                Integer.parseInt(props.getProperty("ml.tuning.purge_gap", "20")));
+        HyperparameterTuner tuner = new HyperparameterTuner(algorithmType, validator,
+                Integer.parseInt(props.getProperty("ml.tuning.num_threads", "0")));
+        Map<String, Object> defaults = algorithm.getParameters();
+        tuner.setBaseParameters(defaults);
+
+        String prefix = "ml.tuning.grid.";
+        for (String key : new TreeSet<>(props.stringPropertyNames())) {
+            if (key.startsWith(prefix)) {
+                String name = key.substring(prefix.length());
+                List<Object> values = new ArrayList<>();
+                for (String value : props.getProperty(key).split(",")) {
+                    values.add(parseTuningValue(name, value.trim(), defaults.get(name)));
+                }
+                tuner.addParameter(name, values);
+            }
+        }
+
+        List<Map<String, Object>> candidates;
+        if ("random".equalsIgnoreCase(props.getProperty("ml.tuning.method", "grid"))) {
+            candidates = tuner.randomCandidates(
+                    Integer.parseInt(props.getProperty("ml.tuning.num_candidates", "20")),
+                    Long.parseLong(props.getProperty("ml.tuning.seed", "42")));
+        } else {
+            candidates = tuner.gridCandidates();
+        }
+
+        double[] prices = new double[rawData.size()];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = rawData.get(i).getClose();
+        }
+
+        List<TuningResult> results;
+        try {
+            results = tuner.tune(prices, candidates, lookbackWindow);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Hyperparameter tuning skipped: {}", e.getMessage());
+            return new HashMap<>();
+        }
+        for (int i = 0; i < Math.min(5, results.size()); i++) {
+            logger.info("Tuning rank {}: {}", i + 1, results.get(i));
+        }
+
+        if (results.isEmpty()) {
+            return new HashMap<>();
+        }
+        return new HashMap<>(results.get(0).getParameters());
+    }
+
+    /**
+     * 将调参配置中的值解析为算法默认参数的类型，没有默认值时按整数、布尔值、浮点数的顺序推断
+     * @param name 参数名
+     * @param value 配置中的值
+     * @param defaultValue 算法getParameters()中的同名参数，可为null
+     */
+    private static Object parseTuningValue(String name, String value, Object defaultValue) {
+        try {
+            if (defaultValue instanceof Integer) {
+                return Integer.parseInt(value);
+            }
+            if (defaultValue instanceof Long) {
+                return Long.parseLong(value);
+            }
+            if (defaultValue instanceof Double) {
+                return Double.parseDouble(value);
+            }
+            if (defaultValue instanceof Boolean) {
+                if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+                    throw new IllegalArgumentException("not a boolean");
+                }
+                return Boolean.parseBoolean(value);
+            }
+            if (defaultValue instanceof String) {
+                return value;
+            }
+            if (value.matches("-?\\d+")) {
+                return Integer.parseInt(value);
+            }
+            if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+                return Boolean.parseBoolean(value);
+            }
+            return Double.parseDouble(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value '" + value + "' for tuning parameter " + name, e);
+        }
+    }
+
+    /**
+     * 设置ND4J计算线程数，这是进程级设置，在创建LSTM模型前设置一次
+     * @param numThreads 线程数，0表示使用ND4J默认值
+     */
+    private static void configureNd4jThreads(int numThreads) {
+        if (numThreads > 0) {
+            Nd4j.getEnvironment().setMaxThreads(numThreads);
+            Nd4j.getEnvironment().setMaxMasterThreads(numThreads);
+        }
+    }
+
     /**
      * 创建机器学习算法
      */
@@ -236,10 +425,63 @@ public class TradingSystem {
             // 简单随机森林参数
             algorithmParams.put("numTrees", Integer.parseInt(props.getProperty("ml.rf.num_trees", "100")));
             algorithmParams.put("maxDepth", Integer.parseInt(props.getProperty("ml.rf.max_depth", "10")));
+            algorithmParams.put("warmStart", Boolean.parseBoolean(props.getProperty("ml.rf.warm_start", "false")));
+            algorithmParams.put("warmStartTrees", Integer.parseInt(props.getProperty("ml.rf.warm_start_trees", "10")));
         } else if ("weka_rf".equals(algorithmType) || "weka_randomforest".equals(algorithmType)) {
             // Weka随机森林参数
             algorithmParams.put("numTrees", Integer.parseInt(props.getProperty("ml.weka_rf.num_trees", "100")));
             algorithmParams.put("maxDepth", Integer.parseInt(props.getProperty("ml.weka_rf.max_depth", "0")));
+            algorithmParams.put("numExecutionSlots", Integer.parseInt(props.getProperty("ml.weka_rf.num_execution_slots", "1")));
+            algorithmParams.put("bagSizePercent", Integer.parseInt(props.getProperty("ml.weka_rf.bag_size_percent", "100")));
+            algorithmParams.put("logTrainingDiagnostics", Boolean.parseBoolean(props.getProperty("ml.weka_rf.log_training_diagnostics", "false")));
+            algorithmParams.put("warmStart", Boolean.parseBoolean(props.getProperty("ml.weka_rf.warm_start", "false")));
+            algorithmParams.put("warmStartTrees", Integer.parseInt(props.getProperty("ml.weka_rf.warm_start_trees", "10")));
+        } else if ("lstm".equals(algorithmType)) {
+            // LSTM参数（输入维度在训练时按特征数自动确定）
+            algorithmParams.put("hiddenSize", Integer.parseInt(props.getProperty("ml.lstm.hidden_size", "50")));
+            algorithmParams.put("learningRate", Double.parseDouble(props.getProperty("ml.lstm.learning_rate", "0.01")));
+            algorithmParams.put("numEpochs", Integer.parseInt(props.getProperty("ml.lstm.num_epochs", "50")));
+            algorithmParams.put("timeSeriesLength", Integer.parseInt(props.getProperty("ml.lstm.time_series_length", "10")));
+            algorithmParams.put("batchSize", Integer.parseInt(props.getProperty("ml.lstm.batch_size", "32")));
+            algorithmParams.put("prefetchBuffer", Integer.parseInt(props.getProperty("ml.lstm.prefetch_buffer", "4")));
+            configureNd4jThreads(Integer.parseInt(props.getProperty("ml.lstm.num_threads", "0")));
+        } else if ("rls".equals(algorithmType) || "online_rls".equals(algorithmType)) {
+            // 在线RLS参数
+            algorithmParams.put("forgettingFactor", Double.parseDouble(props.getProperty("ml.rls.forgetting_factor", "0.999")));
+            algorithmParams.put("initialCovariance", Double.parseDouble(props.getProperty("ml.rls.initial_covariance", "1000")));
+        } else if ("ridge".equals(algorithmType) || "ridge_regression".equals(algorithmType)) {
+            // 岭回归参数
+            algorithmParams.put("regularization", Double.parseDouble(props.getProperty("ml.ridge.regularization", "1.0")));
+        } else if ("smile_rf".equals(algorithmType) || "smile_randomforest".equals(algorithmType)) {
+            // Smile随机森林参数
+            algorithmParams.put("numTrees", Integer.parseInt(props.getProperty("ml.smile_rf.num_trees", "100")));
+            algorithmParams.put("maxDepth", Integer.parseInt(props.getProperty("ml.smile_rf.max_depth", "20")));
+            algorithmParams.put("maxNodes", Integer.parseInt(props.getProperty("ml.smile_rf.max_nodes", "0")));
+            algorithmParams.put("nodeSize", Integer.parseInt(props.getProperty("ml.smile_rf.node_size", "5")));
+            algorithmParams.put("mtry", Integer.parseInt(props.getProperty("ml.smile_rf.mtry", "0")));
+            algorithmParams.put("samplingRate", Double.parseDouble(props.getProperty("ml.smile_rf.sampling_rate", "1.0")));
+            algorithmParams.put("numThreads", Integer.parseInt(props.getProperty("ml.smile_rf.num_threads", "0")));
+        } else if ("smile_gbt".equals(algorithmType) || "smile_gradient_boosting".equals(algorithmType)) {
+            // Smile梯度提升树参数
+            algorithmParams.put("numTrees", Integer.parseInt(props.getProperty("ml.smile_gbt.num_trees", "200")));
+            algorithmParams.put("maxDepth", Integer.parseInt(props.getProperty("ml.smile_gbt.max_depth", "20")));
+            algorithmParams.put("maxNodes", Integer.parseInt(props.getProperty("ml.smile_gbt.max_nodes", "6")));
+            algorithmParams.put("nodeSize", Integer.parseInt(props.getProperty("ml.smile_gbt.node_size", "5")));
+            algorithmParams.put("shrinkage", Double.parseDouble(props.getProperty("ml.smile_gbt.shrinkage", "0.05")));
+            algorithmParams.put("samplingRate", Double.parseDouble(props.getProperty("ml.smile_gbt.sampling_rate", "0.7")));
+            algorithmParams.put("numThreads", Integer.parseInt(props.getProperty("ml.smile_gbt.num_threads", "0")));
+        } else if ("gbt".equals(algorithmType) || "histogram_gbt".equals(algorithmType)
+                || "gradient_boosting".equals(algorithmType)) {
+            // 直方图梯度提升树参数
+            algorithmParams.put("numIterations", Integer.parseInt(props.getProperty("ml.gbt.num_iterations", "200")));
+            algorithmParams.put("learningRate", Double.parseDouble(props.getProperty("ml.gbt.learning_rate", "0.1")));
+            algorithmParams.put("maxDepth", Integer.parseInt(props.getProperty("ml.gbt.max_depth", "6")));
+            algorithmParams.put("maxBins", Integer.parseInt(props.getProperty("ml.gbt.max_bins", "255")));
+            algorithmParams.put("minSamplesLeaf", Integer.parseInt(props.getProperty("ml.gbt.min_samples_leaf", "20")));
+            algorithmParams.put("l2Regularization", Double.parseDouble(props.getProperty("ml.gbt.l2_regularization", "1.0")));
+            algorithmParams.put("validationFraction", Double.parseDouble(props.getProperty("ml.gbt.validation_fraction", "0.1")));
+            algorithmParams.put("earlyStoppingRounds", Integer.parseInt(props.getProperty("ml.gbt.early_stopping_rounds", "20")));
+            algorithmParams.put("numThreads", Integer.parseInt(props.getProperty("ml.gbt.num_threads", "0")));
         }
 
         return MLAlgorithmFactory.createAlgorithm(algorithmType, algorithmParams);
@@ -265,13 +507,42 @@ public class TradingSystem {
     /**
      * 获取评估参数
      */
-    private static Map<String, Object> getEvaluationParameters(Properties props) {
-        Map<String, Object> params = new HashMap<>();
-        params.put("initialCapital", Double.parseDouble(props.getProperty("evaluation.initial_capital", "10000")));
-        params.put("transactionFee", Double.parseDouble(props.getProperty("evaluation.transaction_fee", "0.001")));
-        params.put("riskFreeRate", Double.parseDouble(props.getProperty("evaluation.risk_free_rate", "0.02")));
-        params.put("tradingDaysPerYear", Integer.parseInt(props.getProperty("evaluation.trading_days_per_year", "252")));
-        return params;
+    private static EvaluationParameters getEvaluationParameters(Properties props) {
+        return new EvaluationParameters(
+                Double.parseDouble(props.getProperty("evaluation.initial_capital", "10000")),
+                Double.parseDouble(props.getProperty("evaluation.transaction_fee", "0.001")),
+                Double.parseDouble(props.getProperty("evaluation.risk_free_rate", "0.02")),
+                Integer.parseInt(props.getProperty("evaluation.trading_days_per_year", "252")),
+                Double.parseDouble(props.getProperty("evaluation.cvar_confidence", "0.95")));
+    }
+
+    /**
+     * 初始化成交模拟器
+     */
+    private static ExecutionSimulator initExecutionSimulator(Properties props) {
+        return new ExecutionSimulator(getEvaluationParameters(props))
+                .setPositionSize(Double.parseDouble(props.getProperty("evaluation.position_size", "1.0")))
+                .setSpread(Double.parseDouble(props.getProperty("evaluation.spread", "0.0")))
+                .setSlippageModel(SlippageModel.create(
+                        props.getProperty("evaluation.slippage.model", "none"),
+                        Double.parseDouble(props.getProperty("evaluation.slippage.rate", "0.0"))));
+    }
+
+    /**
+     * 用自助法估计各项指标的置信区间
+     */
+    private static void bootstrapEvaluation(Properties props, BacktestResult backtest) {
+        BootstrapAnalyzer analyzer = new BootstrapAnalyzer(
+                Integer.parseInt(props.getProperty("evaluation.bootstrap.num_resamples", "10000")),
+                Integer.parseInt(props.getProperty("evaluation.bootstrap.block_length", "0")),
+                Double.parseDouble(props.getProperty("evaluation.bootstrap.confidence_level", "0.95")),
+                Long.parseLong(props.getProperty("evaluation.bootstrap.seed", "42")),
+                Integer.parseInt(props.getProperty("evaluation.bootstrap.num_threads", "0")));
+        try {
+            StrategyEvaluator.printConfidenceIntervals(analyzer.analyze(backtest));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Bootstrap evaluation skipped: {}", e.getMessage());
+        }
     }
 
     /**
@@ -299,7 +570,8 @@ public class TradingSystem {
     /**
      * 可视化结果
      */
-    private static void visualizeResults(Properties props, List<StockData> rawData, Map<LocalDate, TradeSignal> signals) {
+    private static void visualizeResults(Properties props, List<StockData> rawData, Map<LocalDate, TradeSignal> signals,
+                                         List<ChartRenderer.Job> chartJobs) {
         String symbol = props.getProperty("trading.symbol", "AAPL");
         LocalDate startDate = LocalDate.parse(
                 props.getProperty("trading.start_date", "2023-01-01"),
@@ -331,19 +603,44 @@ public class TradingSystem {
         String chartType = props.getProperty("visualization.chart_type", "line");
         String chartTitle = symbol + " Price Chart (" + startDate + " to " + endDate + ")";
 
-        if ("candlestick".equalsIgnoreCase(chartType)) {
-            ChartGenerator.createCandlestickChart(chartTitle, rawData, indicators, dateSignals);
-        } else {
-            ChartGenerator.createPriceMAChart(chartTitle, rawData, indicators, dateSignals);
+        boolean candlestick = "candlestick".equalsIgnoreCase(chartType);
+        int width = Integer.parseInt(props.getProperty("visualization.width", "1000"));
+        int height = Integer.parseInt(props.getProperty("visualization.height", "600"));
+
+        // 无窗口模式：不打开窗口，加入渲染任务，稍后渲染为PNG文件
+        if (chartJobs != null) {
+            String fileName = symbol + "_" + (candlestick ? "candlestick" : "line") + "_" + startDate + "_" + endDate;
+            chartJobs.add(new ChartRenderer.Job(fileName, () -> candlestick ?
+                    ChartGenerator.buildCandlestickChart(chartTitle, rawData, indicators, dateSignals) :
+                    ChartGenerator.buildPriceMAChart(chartTitle, rawData, indicators, dateSignals)));
+            return;
         }
 
+        JFreeChart chart;
+        if (candlestick) {
+            chart = ChartGenerator.createCandlestickChart(chartTitle, rawData, indicators, dateSignals);
+        } else {
+            chart = ChartGenerator.createPriceMAChart(chartTitle, rawData, indicators, dateSignals);
+        }
 
         // 保存图表（可选）
         boolean saveChart = Boolean.parseBoolean(props.getProperty("visualization.save_chart", "false"));
         if (saveChart) {
             String filePath = props.getProperty("visualization.save_path", "chart.png");
-            // 图表保存逻辑将在ChartGenerator中实现
+            ChartGenerator.saveChartAsImage(chart, filePath, width, height);
         }
 
     }
+
+    /**
+     * 无窗口模式下把收集到的图表并行渲染为PNG文件
+     */
+    private static void renderCharts(Properties props, List<ChartRenderer.Job> chartJobs) {
+        ChartRenderer renderer = new ChartRenderer(
+                new File(props.getProperty("visualization.output_dir", "charts")),
+                Integer.parseInt(props.getProperty("visualization.width", "1000")),
+                Integer.parseInt(props.getProperty("visualization.height", "600")),
+                Integer.parseInt(props.getProperty("visualization.render_threads", "0")));
+        renderer.renderAll(chartJobs);
+    }
 }
\ No newline at end of file
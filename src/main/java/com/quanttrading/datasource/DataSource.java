@@ -1,5 +1,6 @@
 package com.quanttrading.datasource;
 
+import com.quanttrading.model.PriceSeries;
 import com.quanttrading.model.StockData;
 import java.time.LocalDate;
 import java.util.List;
@@ -7,5 +8,12 @@ import java.util.Map;
 
 public interface DataSource {
     List<StockData> fetchHistoricalData(String symbol, LocalDate start, LocalDate end) throws Exception;
+
+    /**
+     * 获取校验过并按日期升序排列的行情序列
+     */
+    default PriceSeries fetchSeries(String symbol, LocalDate start, LocalDate end) throws Exception {
+        return PriceSeries.of(fetchHistoricalData(symbol, start, end));
+    }
     void configure(Map<String, Object> config);
 }
\ No newline at end of file
@@ -78,6 +78,10 @@ public class YahooFinanceSource implements DataSource {
         JsonNode volumes = quote.path("volume");
 
         for (int i = 0; i < timestamps.size(); i++) {
+            // 停牌或数据缺失的交易日收盘价为null
+            if (closes.get(i) == null || closes.get(i).isNull()) {
+                continue;
+            }
             long timestamp = timestamps.get(i).asLong();
             LocalDate date = Instant.ofEpochSecond(timestamp)
                     .atZone(ZoneId.systemDefault())
@@ -0,0 +1,52 @@
+package com.quanttrading.evaluation;
+
+/**
+ * 一次回测模拟的结果，供所有评价指标共享
+ */
+public final class BacktestResult {
+    private static final BacktestResult EMPTY = new BacktestResult(null, null, EvaluationParameters.defaults());
+
+    private final EquityCurve equityCurve;
+    private final TradeLedger tradeLedger;
+    private final EvaluationParameters parameters;
+
+    BacktestResult(EquityCurve equityCurve, TradeLedger tradeLedger, EvaluationParameters parameters) {
+        this.equityCurve = equityCurve;
+        this.tradeLedger = tradeLedger;
+        this.parameters = parameters;
+    }
+
+    /**
+     * 没有数据或没有交易信号时的空结果，所有指标都为0
+     */
+    static BacktestResult empty() {
+        return EMPTY;
+    }
+
+    public boolean isEmpty() {
+        return equityCurve == null;
+    }
+
+    public EquityCurve getEquityCurve() {
+        return equityCurve;
+    }
+
+    public TradeLedger getTradeLedger() {
+        return tradeLedger;
+    }
+
+    /**
+     * 模拟和计算指标使用的参数
+     */
+    public EvaluationParameters getParameters() {
+        return parameters;
+    }
+
+    public double getRiskFreeRate() {
+        return parameters.getRiskFreeRate();
+    }
+
+    public int getTradingDaysPerYear() {
+        return parameters.getTradingDaysPerYear();
+    }
+}
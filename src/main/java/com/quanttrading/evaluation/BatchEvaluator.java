@@ -0,0 +1,228 @@
+package com.quanttrading.evaluation;
+
+import com.quanttrading.model.PriceSeries;
+import com.quanttrading.model.StockData;
+import com.quanttrading.model.TradeSignal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * 批量策略评估器
+ * 一组行情只排序和读取一次，之后对任意多组信号重复评估，适用于参数扫描和集成策略。
+ * 信号按交易日对齐编码为字节数组（{@link #BUY}、{@link #SELL}、{@link #HOLD}），
+ * 每组信号在一个紧凑的循环里完成模拟，状态全部放在局部变量中，行情数组在各组之间共享并常驻缓存；
+ * 不同组信号之间并行计算，夏普比率的方差用Welford算法单遍计算。
+ * 只支持全仓买入、全部卖出且仅扣手续费的成交模型，结果与默认参数的{@link ExecutionSimulator}一致；
+ * 需要按比例建仓、买卖价差或滑点时请改用{@link ExecutionSimulator}。
+ */
+public class BatchEvaluator {
+    private static final Logger logger = LoggerFactory.getLogger(BatchEvaluator.class);
+
+    public static final byte HOLD = 0;
+    public static final byte BUY = 1;
+    public static final byte SELL = -1;
+
+    // 每个并行任务评估的信号组数
+    private static final int CHUNK_SIZE = 64;
+
+    private final PriceSeries series;
+    private final double[] prices;
+    private final double yearsInvested;
+
+    private final double initialCapital;
+    private final double transactionFee;
+    private final double riskFreeRate;
+    private final int tradingDaysPerYear;
+
+    /**
+     * @param stockData 股票数据（不会被修改）
+     * @param parameters 计算参数，与{@link StrategyEvaluator#evaluateStrategy}相同，可为null
+     */
+    public BatchEvaluator(List<StockData> stockData, Map<String, Object> parameters) {
+        this(PriceSeries.of(stockData), EvaluationParameters.fromMap(parameters));
+    }
+
+    /**
+     * @param series 行情序列
+     * @param parameters 评估参数
+     */
+    public BatchEvaluator(PriceSeries series, EvaluationParameters parameters) {
+        this.series = series;
+        this.prices = series.getCloses();
+        this.yearsInvested = ChronoUnit.DAYS.between(series.getStartDate(), series.getEndDate()) / 365.0;
+        this.initialCapital = parameters.getInitialCapital();
+        this.transactionFee = parameters.getTransactionFee();
+        this.riskFreeRate = parameters.getRiskFreeRate();
+        this.tradingDaysPerYear = parameters.getTradingDaysPerYear();
+    }
+
+    /**
+     * 交易日数，即每组编码信号的长度
+     */
+    public int size() {
+        return prices.length;
+    }
+
+    public LocalDate dateAt(int index) {
+        return series.dateAt(index);
+    }
+
+    /**
+     * 把按日期索引的信号编码为与交易日对齐的字节数组，不在行情中的日期被忽略
+     */
+    public byte[] encode(Map<LocalDate, TradeSignal> signals) {
+        byte[] encoded = new byte[prices.length];
+        for (Map.Entry<LocalDate, TradeSignal> entry : signals.entrySet()) {
+            int index = series.indexOf(entry.getKey());
+            if (index >= 0) {
+                encoded[index] = entry.getValue() == TradeSignal.BUY ? BUY :
+                        entry.getValue() == TradeSignal.SELL ? SELL : HOLD;
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * 评估多组按日期索引的信号
+     */
+    public BatchResult evaluateAll(List<Map<LocalDate, TradeSignal>> signalSets) {
+        byte[][] encoded = new byte[signalSets.size()][];
+        for (int v = 0; v < encoded.length; v++) {
+            encoded[v] = encode(signalSets.get(v));
+        }
+        return evaluate(encoded);
+    }
+
+    /**
+     * 评估多组编码后的信号
+     * 没有任何买卖信号的一组所有指标为0，与{@link StrategyEvaluator}对空信号的处理一致。
+     * @param signals 每组信号的长度必须等于{@link #size()}
+     * @return N×指标数的结果矩阵
+     */
+    public BatchResult evaluate(byte[][] signals) {
+        for (byte[] variant : signals) {
+            if (variant.length != prices.length) {
+                throw new IllegalArgumentException("Expected " + prices.length + " signals per variant but got " + variant.length);
+            }
+        }
+
+        int numVariants = signals.length;
+        double[][] columns = new double[BatchResult.NUM_METRICS][numVariants];
+        long startTime = System.currentTimeMillis();
+
+        int numChunks = (numVariants + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, numChunks).parallel().forEach(chunk -> {
+            int end = Math.min(numVariants, (chunk + 1) * CHUNK_SIZE);
+            for (int v = chunk * CHUNK_SIZE; v < end; v++) {
+                simulate(signals[v], columns, v);
+            }
+        });
+
+        logger.info("Batch evaluated {} signal sets over {} bars in {} ms",
+                numVariants, prices.length, System.currentTimeMillis() - startTime);
+        return new BatchResult(columns);
+    }
+
+    private void simulate(byte[] signals, double[][] columns, int variant) {
+        double[] prices = this.prices;
+        int n = prices.length;
+        double fee = transactionFee;
+
+        double capital = initialCapital;
+        double shares = 0;
+        double previousValue = initialCapital;
+        double peak = 0;
+        double maxDrawdown = 0;
+        long numReturns = 0;
+        double meanReturn = 0;
+        double sumSquaredDiff = 0;
+        boolean inTrade = false;
+        double entryPrice = 0;
+        int numTrades = 0;
+        int winningTrades = 0;
+        boolean anySignal = false;
+
+        for (int i = 0; i < n; i++) {
+            double price = prices[i];
+
+            // 交易前的组合价值
+            double currentValue = capital + shares * price;
+            if (previousValue > 0) {
+                double dailyReturn = (currentValue - previousValue) / previousValue;
+                numReturns++;
+                double delta = dailyReturn - meanReturn;
+                meanReturn += delta / numReturns;
+                sumSquaredDiff += delta * (dailyReturn - meanReturn);
+            }
+            previousValue = currentValue;
+
+            if (i == 0 || currentValue > peak) {
+                peak = currentValue;
+            }
+            double drawdown = (peak - currentValue) / peak;
+            if (drawdown > maxDrawdown) {
+                maxDrawdown = drawdown;
+            }
+
+            byte signal = signals[i];
+            if (signal == BUY) {
+                anySignal = true;
+                if (capital > 0) {
+                    shares = (capital - capital * fee) / price;
+                    capital = 0;
+                }
+                if (!inTrade) {
+                    inTrade = true;
+                    entryPrice = price;
+                }
+            } else if (signal == SELL) {
+                anySignal = true;
+                if (shares > 0) {
+                    double amount = shares * price;
+                    capital = amount - amount * fee;
+                    shares = 0;
+                }
+                if (inTrade) {
+                    numTrades++;
+                    if ((price - entryPrice) / entryPrice - 2 * fee > 0) {
+                        winningTrades++;
+                    }
+                    inTrade = false;
+                }
+            }
+        }
+
+        if (!anySignal) {
+            return;
+        }
+
+        // 期末仍持仓时按最后一天的价格卖出
+        double lastPrice = prices[n - 1];
+        double finalValue = capital;
+        if (shares > 0) {
+            double amount = shares * lastPrice;
+            finalValue = capital + amount - amount * fee;
+        }
+        if (inTrade) {
+            numTrades++;
+            if ((lastPrice - entryPrice) / entryPrice - 2 * fee > 0) {
+                winningTrades++;
+            }
+        }
+
+        double totalReturn = (finalValue - initialCapital) / initialCapital;
+        columns[BatchResult.ANNUAL_RETURN][variant] = Math.pow(1 + totalReturn, 1 / yearsInvested) - 1;
+
+        double dailyStdDev = Math.sqrt(sumSquaredDiff / (numReturns - 1));
+        columns[BatchResult.SHARPE_RATIO][variant] = (meanReturn * tradingDaysPerYear - riskFreeRate) /
+                (dailyStdDev * Math.sqrt(tradingDaysPerYear));
+        columns[BatchResult.MAX_DRAWDOWN][variant] = maxDrawdown;
+        columns[BatchResult.WIN_RATE][variant] = numTrades == 0 ? 0.0 : (double) winningTrades / numTrades;
+    }
+}
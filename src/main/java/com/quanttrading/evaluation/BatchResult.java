@@ -0,0 +1,72 @@
+package com.quanttrading.evaluation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 批量评估的结果矩阵（行为信号组，列为指标）
+ * 按指标分列存放，便于对同一指标做排序或筛选。
+ */
+public final class BatchResult {
+    public static final int ANNUAL_RETURN = 0;
+    public static final int SHARPE_RATIO = 1;
+    public static final int MAX_DRAWDOWN = 2;
+    public static final int WIN_RATE = 3;
+    public static final int NUM_METRICS = 4;
+
+    // 与StrategyEvaluator结果中的键一致
+    private static final String[] METRIC_NAMES = {"annualReturn", "sharpeRatio", "maxDrawdown", "winRate"};
+
+    private final double[][] columns;
+
+    BatchResult(double[][] columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * 信号组数
+     */
+    public int numVariants() {
+        return columns[0].length;
+    }
+
+    public double get(int variant, int metric) {
+        return columns[metric][variant];
+    }
+
+    /**
+     * 某一指标在所有信号组上的取值
+     */
+    public double[] getColumn(int metric) {
+        return columns[metric].clone();
+    }
+
+    /**
+     * 某一指标最大的信号组
+     */
+    public int argMax(int metric) {
+        double[] column = columns[metric];
+        int best = -1;
+        for (int v = 0; v < column.length; v++) {
+            if (!Double.isNaN(column[v]) && (best < 0 || column[v] > column[best])) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    public static String metricName(int metric) {
+        return METRIC_NAMES[metric];
+    }
+
+    /**
+     * 单个信号组的结果，格式与{@link StrategyEvaluator#evaluateStrategy}一致
+     */
+    public Map<String, Double> toMap(int variant) {
+        Map<String, Double> results = new HashMap<>();
+        for (int m = 0; m < NUM_METRICS; m++) {
+            results.put(METRIC_NAMES[m], columns[m][variant]);
+        }
+        return results;
+    }
+}
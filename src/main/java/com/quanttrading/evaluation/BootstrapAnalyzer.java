@@ -0,0 +1,255 @@
+package com.quanttrading.evaluation;
+
+import com.quanttrading.model.PriceSeries;
+import com.quanttrading.model.StockData;
+import com.quanttrading.model.TradeSignal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 策略指标的自助法置信区间
+ * 日收益率采用循环块自助法（circular block bootstrap）重采样以保留短期自相关，据此重新计算夏普比率、最大回撤和年化收益率；
+ * 胜率对交易序列做蒙特卡洛重采样。
+ * 重采样在ForkJoin线程池上并行执行，每次重采样使用预先拆分的独立随机数流，结果与线程数无关。
+ */
+public class BootstrapAnalyzer {
+    private static final Logger logger = LoggerFactory.getLogger(BootstrapAnalyzer.class);
+
+    // 每个叶子任务处理的重采样次数
+    private static final int LEAF_SIZE = 64;
+
+    private final int numResamples;
+    private final int blockLength;
+    private final double confidenceLevel;
+    private final long seed;
+    private final int numThreads;
+
+    public BootstrapAnalyzer() {
+        this(10000, 0, 0.95, 42L, 0);
+    }
+
+    /**
+     * @param numResamples 重采样次数
+     * @param blockLength 块长度，0表示按样本数的立方根自动选择
+     * @param confidenceLevel 置信水平，如0.95
+     * @param seed 随机种子
+     * @param numThreads 并行线程数，0表示使用公共ForkJoinPool
+     */
+    public BootstrapAnalyzer(int numResamples, int blockLength, double confidenceLevel, long seed, int numThreads) {
+        if (numResamples < 1) {
+            throw new IllegalArgumentException("Number of resamples must be positive");
+        }
+        if (blockLength < 0) {
+            throw new IllegalArgumentException("Block length must not be negative");
+        }
+        if (confidenceLevel <= 0 || confidenceLevel >= 1) {
+            throw new IllegalArgumentException("Confidence level must be between 0 and 1");
+        }
+        this.numResamples = numResamples;
+        this.blockLength = blockLength;
+        this.confidenceLevel = confidenceLevel;
+        this.seed = seed;
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * 模拟交易并计算置信区间
+     * @param stockData 股票数据
+     * @param signals 交易信号
+     * @param parameters 计算参数，与{@link StrategyEvaluator#evaluateStrategy}相同
+     */
+    public BootstrapResult analyze(List<StockData> stockData, Map<LocalDate, TradeSignal> signals,
+                                   Map<String, Object> parameters) {
+        return analyze(EquitySimulator.simulate(stockData, signals, parameters));
+    }
+
+    /**
+     * 在已排序的行情序列上模拟交易并计算置信区间
+     */
+    public BootstrapResult analyze(PriceSeries series, Map<LocalDate, TradeSignal> signals,
+                                   EvaluationParameters parameters) {
+        return analyze(EquitySimulator.simulate(series, signals, parameters));
+    }
+
+    /**
+     * 基于已完成的回测计算置信区间，点估计与{@link StrategyEvaluator}的结果一致
+     * @param backtest 回测结果，至少需要两个日收益率
+     */
+    public BootstrapResult analyze(BacktestResult backtest) {
+        if (backtest.isEmpty() || backtest.getEquityCurve().numReturns() < 2) {
+            throw new IllegalArgumentException("Bootstrap requires at least two daily returns");
+        }
+
+        EquityCurve curve = backtest.getEquityCurve();
+        double[] returns = curve.getDailyReturns();
+        long days = ChronoUnit.DAYS.between(curve.getStartDate(), curve.getEndDate());
+        int block = blockLength > 0 ? Math.min(blockLength, returns.length) :
+                Math.max(1, (int) Math.round(Math.cbrt(returns.length)));
+
+        Resampling resampling = new Resampling(returns, backtest.getTradeLedger().getProfits(), block,
+                days / 365.0, backtest.getRiskFreeRate(), backtest.getTradingDaysPerYear(), numResamples);
+
+        // 预先为每次重采样拆分随机数流
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int r = 0; r < numResamples; r++) {
+            resampling.streams[r] = root.split();
+        }
+
+        long startTime = System.currentTimeMillis();
+        ForkJoinPool pool = numThreads > 0 ? new ForkJoinPool(numThreads) : ForkJoinPool.commonPool();
+        try {
+            pool.invoke(new ResampleTask(resampling, 0, numResamples));
+        } finally {
+            if (pool != ForkJoinPool.commonPool()) {
+                pool.shutdown();
+            }
+        }
+        logger.info("Bootstrap completed with {} resamples of {} returns (block length {}) in {} ms",
+                numResamples, returns.length, block, System.currentTimeMillis() - startTime);
+
+        return new BootstrapResult(numResamples, confidenceLevel,
+                interval("annualReturn", backtest, resampling.annualReturns),
+                interval("sharpeRatio", backtest, resampling.sharpeRatios),
+                interval("maxDrawdown", backtest, resampling.maxDrawdowns),
+                interval("winRate", backtest, resampling.winRates));
+    }
+
+    private BootstrapResult.ConfidenceInterval interval(String key, BacktestResult backtest, double[] samples) {
+        double estimate = PerformanceMetricRegistry.getMetric(key).calculate(
+                backtest.getEquityCurve(), backtest.getTradeLedger(), backtest.getParameters());
+        return BootstrapResult.ConfidenceInterval.of(estimate, samples, confidenceLevel);
+    }
+
+    /**
+     * 重采样的输入和按指标分列存放的输出
+     */
+    private static final class Resampling {
+        final double[] returns;
+        final double[] profits;
+        final int blockLength;
+        final double yearsInvested;
+        final double riskFreeRate;
+        final int tradingDaysPerYear;
+
+        final SplittableRandom[] streams;
+        final double[] annualReturns;
+        final double[] sharpeRatios;
+        final double[] maxDrawdowns;
+        final double[] winRates;
+
+        Resampling(double[] returns, double[] profits, int blockLength, double yearsInvested,
+                   double riskFreeRate, int tradingDaysPerYear, int numResamples) {
+            this.returns = returns;
+            this.profits = profits;
+            this.blockLength = blockLength;
+            this.yearsInvested = yearsInvested;
+            this.riskFreeRate = riskFreeRate;
+            this.tradingDaysPerYear = tradingDaysPerYear;
+            this.streams = new SplittableRandom[numResamples];
+            this.annualReturns = new double[numResamples];
+            this.sharpeRatios = new double[numResamples];
+            this.maxDrawdowns = new double[numResamples];
+            this.winRates = new double[numResamples];
+        }
+    }
+
+    /**
+     * 按重采样区间二分的ForkJoin任务，叶子任务复用一个收益率缓冲区
+     */
+    private static final class ResampleTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Resampling resampling;
+        private final int from;
+        private final int to;
+
+        ResampleTask(Resampling resampling, int from, int to) {
+            this.resampling = resampling;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                double[] buffer = new double[resampling.returns.length];
+                for (int r = from; r < to; r++) {
+                    resample(r, buffer);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ResampleTask(resampling, from, middle), new ResampleTask(resampling, middle, to));
+        }
+
+        private void resample(int index, double[] buffer) {
+            Resampling s = resampling;
+            SplittableRandom rng = s.streams[index];
+            double[] returns = s.returns;
+            int n = returns.length;
+
+            // 循环块自助法：随机起点，连续取blockLength个收益率，越界回到开头
+            int filled = 0;
+            while (filled < n) {
+                int start = rng.nextInt(n);
+                int length = Math.min(s.blockLength, n - filled);
+                for (int k = 0; k < length; k++) {
+                    int source = start + k;
+                    buffer[filled++] = returns[source < n ? source : source - n];
+                }
+            }
+
+            // 复利净值、最大回撤和均值
+            double value = 1.0;
+            double peak = 1.0;
+            double maxDrawdown = 0.0;
+            double sum = 0.0;
+            for (int i = 0; i < n; i++) {
+                double r = buffer[i];
+                sum += r;
+                value *= 1 + r;
+                if (value > peak) {
+                    peak = value;
+                }
+                double drawdown = (peak - value) / peak;
+                if (drawdown > maxDrawdown) {
+                    maxDrawdown = drawdown;
+                }
+            }
+            double mean = sum / n;
+            double sumSquaredDiff = 0.0;
+            for (int i = 0; i < n; i++) {
+                double diff = buffer[i] - mean;
+                sumSquaredDiff += diff * diff;
+            }
+            double dailyStdDev = Math.sqrt(sumSquaredDiff / (n - 1));
+
+            s.sharpeRatios[index] = (mean * s.tradingDaysPerYear - s.riskFreeRate) /
+                    (dailyStdDev * Math.sqrt(s.tradingDaysPerYear));
+            s.maxDrawdowns[index] = maxDrawdown;
+            s.annualReturns[index] = Math.pow(value, 1 / s.yearsInvested) - 1;
+
+            // 交易序列的蒙特卡洛重采样
+            double[] profits = s.profits;
+            if (profits.length == 0) {
+                s.winRates[index] = 0.0;
+            } else {
+                int winning = 0;
+                for (int k = 0; k < profits.length; k++) {
+                    if (profits[rng.nextInt(profits.length)] > 0) {
+                        winning++;
+                    }
+                }
+                s.winRates[index] = (double) winning / profits.length;
+            }
+        }
+    }
+}
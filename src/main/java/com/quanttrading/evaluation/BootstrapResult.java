@@ -0,0 +1,120 @@
+package com.quanttrading.evaluation;
+
+import java.util.Arrays;
+
+/**
+ * 自助法（bootstrap）得到的各项指标置信区间
+ */
+public final class BootstrapResult {
+
+    /**
+     * 单个指标的点估计和百分位置信区间
+     */
+    public static final class ConfidenceInterval {
+        private final double estimate;
+        private final double lower;
+        private final double upper;
+        private final double standardError;
+
+        ConfidenceInterval(double estimate, double lower, double upper, double standardError) {
+            this.estimate = estimate;
+            this.lower = lower;
+            this.upper = upper;
+            this.standardError = standardError;
+        }
+
+        /**
+         * 由重采样得到的指标值计算区间（会对samples原地排序）
+         */
+        static ConfidenceInterval of(double estimate, double[] samples, double confidenceLevel) {
+            Arrays.sort(samples);
+            double alpha = (1 - confidenceLevel) / 2;
+            double mean = 0;
+            for (double sample : samples) {
+                mean += sample;
+            }
+            mean /= samples.length;
+            double sumSquaredDiff = 0;
+            for (double sample : samples) {
+                sumSquaredDiff += (sample - mean) * (sample - mean);
+            }
+            double standardError = samples.length > 1 ? Math.sqrt(sumSquaredDiff / (samples.length - 1)) : 0.0;
+            return new ConfidenceInterval(estimate, quantile(samples, alpha), quantile(samples, 1 - alpha), standardError);
+        }
+
+        /**
+         * 已排序数组的线性插值分位数
+         */
+        private static double quantile(double[] sorted, double p) {
+            double position = p * (sorted.length - 1);
+            int index = (int) Math.floor(position);
+            if (index >= sorted.length - 1) {
+                return sorted[sorted.length - 1];
+            }
+            double fraction = position - index;
+            return sorted[index] + fraction * (sorted[index + 1] - sorted[index]);
+        }
+
+        public double getEstimate() {
+            return estimate;
+        }
+
+        public double getLower() {
+            return lower;
+        }
+
+        public double getUpper() {
+            return upper;
+        }
+
+        public double getStandardError() {
+            return standardError;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.4f [%.4f, %.4f]", estimate, lower, upper);
+        }
+    }
+
+    private final int numResamples;
+    private final double confidenceLevel;
+    private final ConfidenceInterval annualReturn;
+    private final ConfidenceInterval sharpeRatio;
+    private final ConfidenceInterval maxDrawdown;
+    private final ConfidenceInterval winRate;
+
+    BootstrapResult(int numResamples, double confidenceLevel, ConfidenceInterval annualReturn,
+                    ConfidenceInterval sharpeRatio, ConfidenceInterval maxDrawdown, ConfidenceInterval winRate) {
+        this.numResamples = numResamples;
+        this.confidenceLevel = confidenceLevel;
+        this.annualReturn = annualReturn;
+        this.sharpeRatio = sharpeRatio;
+        this.maxDrawdown = maxDrawdown;
+        this.winRate = winRate;
+    }
+
+    public int getNumResamples() {
+        return numResamples;
+    }
+
+    public double getConfidenceLevel() {
+        return confidenceLevel;
+    }
+
+    public ConfidenceInterval getAnnualReturn() {
+        return annualReturn;
+    }
+
+    public ConfidenceInterval getSharpeRatio() {
+        return sharpeRatio;
+    }
+
+    public ConfidenceInterval getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    public ConfidenceInterval getWinRate() {
+        return winRate;
+    }
+}
@@ -0,0 +1,95 @@
+package com.quanttrading.evaluation;
+
+import java.time.LocalDate;
+
+/**
+ * 回测的资金曲线（不可变）
+ * 保存每个交易日交易前的组合价值、日收益率序列，以及期末按最后收盘价平仓后的价值。
+ */
+public final class EquityCurve {
+    private final LocalDate[] dates;
+    private final double[] prices;
+    private final double[] values;
+    private final double[] dailyReturns;
+    private final double initialCapital;
+    private final double finalValue;
+
+    EquityCurve(LocalDate[] dates, double[] prices, double[] values, double[] dailyReturns,
+                double initialCapital, double finalValue) {
+        this.dates = dates;
+        this.prices = prices;
+        this.values = values;
+        this.dailyReturns = dailyReturns;
+        this.initialCapital = initialCapital;
+        this.finalValue = finalValue;
+    }
+
+    /**
+     * 交易日数量
+     */
+    public int size() {
+        return values.length;
+    }
+
+    public LocalDate dateAt(int index) {
+        return dates[index];
+    }
+
+    /**
+     * 当日收盘价
+     */
+    public double priceAt(int index) {
+        return prices[index];
+    }
+
+    /**
+     * 当日交易前的组合价值
+     */
+    public double valueAt(int index) {
+        return values[index];
+    }
+
+    /**
+     * 日收益率个数（前一日价值为正时才计入）
+     */
+    public int numReturns() {
+        return dailyReturns.length;
+    }
+
+    public double returnAt(int index) {
+        return dailyReturns[index];
+    }
+
+    /**
+     * 日收益率序列的副本
+     */
+    public double[] getDailyReturns() {
+        return dailyReturns.clone();
+    }
+
+    /**
+     * 组合价值序列的副本
+     */
+    public double[] getValues() {
+        return values.clone();
+    }
+
+    public LocalDate getStartDate() {
+        return dates[0];
+    }
+
+    public LocalDate getEndDate() {
+        return dates[dates.length - 1];
+    }
+
+    public double getInitialCapital() {
+        return initialCapital;
+    }
+
+    /**
+     * 期末价值，仍持仓时按最后收盘价扣除手续费后平仓
+     */
+    public double getFinalValue() {
+        return finalValue;
+    }
+}
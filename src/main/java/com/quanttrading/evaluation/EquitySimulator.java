@@ -0,0 +1,58 @@
+package com.quanttrading.evaluation;
+
+import com.quanttrading.model.PriceSeries;
+import com.quanttrading.model.StockData;
+import com.quanttrading.model.TradeSignal;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 回测模拟器
+ * 按默认成交规则（全仓买入、全部卖出，只扣除手续费）运行{@link ExecutionSimulator}。
+ */
+public class EquitySimulator {
+
+    private EquitySimulator() {
+    }
+
+    /**
+     * 运行回测模拟
+     * @param stockData 股票数据（不会被修改）
+     * @param signals 交易信号
+     * @param parameters 计算参数：initialCapital、transactionFee、riskFreeRate、tradingDaysPerYear
+     * @return 回测结果，没有数据或信号时为空结果
+     */
+    public static BacktestResult simulate(List<StockData> stockData, Map<LocalDate, TradeSignal> signals,
+                                          Map<String, Object> parameters) {
+        return simulate(stockData, signals, EvaluationParameters.fromMap(parameters));
+    }
+
+    /**
+     * 运行回测模拟
+     * @param stockData 股票数据（不会被修改）
+     * @param signals 交易信号
+     * @param parameters 评估参数
+     * @return 回测结果，没有数据或信号时为空结果
+     */
+    public static BacktestResult simulate(List<StockData> stockData, Map<LocalDate, TradeSignal> signals,
+                                          EvaluationParameters parameters) {
+        if (stockData == null || stockData.isEmpty() || signals == null || signals.isEmpty()) {
+            return BacktestResult.empty();
+        }
+        return simulate(PriceSeries.of(stockData), signals, parameters);
+    }
+
+    /**
+     * 在已排序的行情序列上运行回测模拟，可被多个线程同时调用
+     * @param series 行情序列
+     * @param signals 交易信号
+     * @param parameters 评估参数
+     * @return 回测结果，没有信号时为空结果
+     */
+    public static BacktestResult simulate(PriceSeries series, Map<LocalDate, TradeSignal> signals,
+                                          EvaluationParameters parameters) {
+        return new ExecutionSimulator(parameters).simulate(series, signals);
+    }
+}
@@ -0,0 +1,201 @@
+package com.quanttrading.evaluation;
+
+import com.quanttrading.model.PriceSeries;
+import com.quanttrading.model.TradeSignal;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 策略评估结果的有界LRU缓存
+ * 以(行情序列指纹、交易信号、评估参数)的128位哈希为键，参数扫描或滚动回测中产生相同信号时直接返回已有结果。
+ * 信号的哈希与Map的遍历顺序无关，只需遍历信号条目而不必遍历整个行情序列。
+ * 命中时还会核对行情指纹、行情长度和信号数，哈希碰撞时按未命中处理。
+ * 缓存在创建时复制{@link ExecutionSimulator}的配置（含滑点模型），之后对原模拟器的修改不影响缓存。可被多个线程同时使用。
+ */
+public class EvaluationCache {
+    private static final long SEED_HIGH = 0x9E3779B97F4A7C15L;
+    private static final long SEED_LOW = 0xD1B54A32D192ED03L;
+
+    private final ExecutionSimulator simulator;
+    private final int capacity;
+    private final LinkedHashMap<Key, Entry> entries;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param simulator 用于未命中时模拟交易的成交模拟器，缓存保存其配置的副本
+     * @param capacity 最多缓存的结果数
+     */
+    public EvaluationCache(ExecutionSimulator simulator, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Evaluation cache capacity must be positive");
+        }
+        this.simulator = simulator.copy();
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Key, Entry>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > EvaluationCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * 评估策略性能，命中时直接返回缓存的结果
+     * @param series 行情序列
+     * @param signals 交易信号
+     * @return 评估结果（只读）
+     */
+    public Map<String, Double> evaluate(PriceSeries series, Map<LocalDate, TradeSignal> signals) {
+        Key key = computeKey(series, signals);
+        int signalCount = signals == null ? 0 : signals.size();
+        synchronized (this) {
+            Entry cached = entries.get(key);
+            if (cached != null && cached.matches(series, signalCount)) {
+                hits++;
+                return cached.results;
+            }
+            misses++;
+        }
+
+        // 在锁外模拟，不阻塞其他线程的查询
+        Map<String, Double> results = Collections.unmodifiableMap(
+                StrategyEvaluator.evaluateBacktest(simulator.simulate(series, signals)));
+        synchronized (this) {
+            entries.put(key, new Entry(series, signalCount, results));
+        }
+        return results;
+    }
+
+    /**
+     * 计算缓存键，信号条目按日期和信号类型各自混合后相加，与遍历顺序无关
+     */
+    Key computeKey(PriceSeries series, Map<LocalDate, TradeSignal> signals) {
+        long high = SEED_HIGH ^ series.getFingerprint();
+        long low = SEED_LOW ^ mix(series.getFingerprint());
+
+        if (signals != null) {
+            long signalHigh = 0;
+            long signalLow = 0;
+            for (Map.Entry<LocalDate, TradeSignal> entry : signals.entrySet()) {
+                TradeSignal signal = entry.getValue();
+                long code = entry.getKey().toEpochDay() * 4 + (signal == null ? 3 : signal.ordinal());
+                long h = mix(code ^ SEED_HIGH);
+                signalHigh += h;
+                signalLow += mix(h ^ SEED_LOW);
+            }
+            high = mix(high ^ signalHigh) + signals.size();
+            low = mix(low ^ signalLow) + signals.size();
+        } else {
+            high = mix(high);
+            low = mix(low);
+        }
+
+        EvaluationParameters parameters = simulator.getParameters();
+        long[] values = {
+                Double.doubleToLongBits(parameters.getInitialCapital()),
+                Double.doubleToLongBits(parameters.getTransactionFee()),
+                Double.doubleToLongBits(parameters.getRiskFreeRate()),
+                parameters.getTradingDaysPerYear(),
+                Double.doubleToLongBits(parameters.getCvarConfidence()),
+                Double.doubleToLongBits(simulator.getPositionSize()),
+                Double.doubleToLongBits(simulator.getSpread())
+        };
+        for (long value : values) {
+            high = mix(high ^ value);
+            low = mix(low ^ (value + SEED_LOW));
+        }
+        return new Key(high, low);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * 命中率，没有查询时为0
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 清空缓存和计数
+     */
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * 缓存的结果，连同用于核对的行情指纹、行情长度和信号数
+     */
+    private static final class Entry {
+        private final long fingerprint;
+        private final int seriesSize;
+        private final int signalCount;
+        private final Map<String, Double> results;
+
+        Entry(PriceSeries series, int signalCount, Map<String, Double> results) {
+            this.fingerprint = series.getFingerprint();
+            this.seriesSize = series.size();
+            this.signalCount = signalCount;
+            this.results = results;
+        }
+
+        boolean matches(PriceSeries series, int signalCount) {
+            return fingerprint == series.getFingerprint() && seriesSize == series.size()
+                    && this.signalCount == signalCount;
+        }
+    }
+
+    static final class Key {
+        private final long high;
+        private final long low;
+
+        Key(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return high == other.high && low == other.low;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (low ^ (low >>> 32));
+        }
+    }
+}
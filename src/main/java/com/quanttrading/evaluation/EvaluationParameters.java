@@ -0,0 +1,105 @@
+package com.quanttrading.evaluation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 策略评估参数（不可变）
+ * 取代按键取值再强制转换的参数Map，解析一次后在模拟和各项指标之间共享。
+ */
+public final class EvaluationParameters {
+    private static final EvaluationParameters DEFAULTS = new EvaluationParameters(10000.0, 0.001, 0.02, 252, 0.95);
+
+    private final double initialCapital;
+    private final double transactionFee;
+    private final double riskFreeRate;
+    private final int tradingDaysPerYear;
+    private final double cvarConfidence;
+
+    /**
+     * @param initialCapital 初始资金
+     * @param transactionFee 手续费率（按成交金额）
+     * @param riskFreeRate 年化无风险利率
+     * @param tradingDaysPerYear 每年交易日数
+     * @param cvarConfidence 条件风险价值的置信水平
+     */
+    public EvaluationParameters(double initialCapital, double transactionFee, double riskFreeRate,
+                                int tradingDaysPerYear, double cvarConfidence) {
+        if (initialCapital <= 0) {
+            throw new IllegalArgumentException("Initial capital must be positive");
+        }
+        if (tradingDaysPerYear < 1) {
+            throw new IllegalArgumentException("Trading days per year must be positive");
+        }
+        if (cvarConfidence <= 0 || cvarConfidence >= 1) {
+            throw new IllegalArgumentException("CVaR confidence must be between 0 and 1");
+        }
+        this.initialCapital = initialCapital;
+        this.transactionFee = transactionFee;
+        this.riskFreeRate = riskFreeRate;
+        this.tradingDaysPerYear = tradingDaysPerYear;
+        this.cvarConfidence = cvarConfidence;
+    }
+
+    /**
+     * 默认参数：初始资金10000，手续费0.1%，无风险利率2%，每年252个交易日，CVaR置信水平95%
+     */
+    public static EvaluationParameters defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * 从参数Map解析，键为initialCapital、transactionFee、riskFreeRate、tradingDaysPerYear、cvarConfidence，
+     * 缺少的键使用默认值
+     * @param parameters 参数Map，可为null
+     */
+    public static EvaluationParameters fromMap(Map<String, Object> parameters) {
+        if (parameters == null) {
+            return DEFAULTS;
+        }
+        return new EvaluationParameters(
+                parameters.containsKey("initialCapital") ?
+                        (double) parameters.get("initialCapital") : DEFAULTS.initialCapital,
+                parameters.containsKey("transactionFee") ?
+                        (double) parameters.get("transactionFee") : DEFAULTS.transactionFee,
+                parameters.containsKey("riskFreeRate") ?
+                        (double) parameters.get("riskFreeRate") : DEFAULTS.riskFreeRate,
+                parameters.containsKey("tradingDaysPerYear") ?
+                        (int) parameters.get("tradingDaysPerYear") : DEFAULTS.tradingDaysPerYear,
+                parameters.containsKey("cvarConfidence") ?
+                        (double) parameters.get("cvarConfidence") : DEFAULTS.cvarConfidence);
+    }
+
+    /**
+     * 转换为参数Map，供仍使用Map参数的接口调用
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("initialCapital", initialCapital);
+        parameters.put("transactionFee", transactionFee);
+        parameters.put("riskFreeRate", riskFreeRate);
+        parameters.put("tradingDaysPerYear", tradingDaysPerYear);
+        parameters.put("cvarConfidence", cvarConfidence);
+        return parameters;
+    }
+
+    public double getInitialCapital() {
+        return initialCapital;
+    }
+
+    public double getTransactionFee() {
+        return transactionFee;
+    }
+
+    public double getRiskFreeRate() {
+        return riskFreeRate;
+    }
+
+    public int getTradingDaysPerYear() {
+        return tradingDaysPerYear;
+    }
+
+    public double getCvarConfidence() {
+        return cvarConfidence;
+    }
+}
@@ -0,0 +1,176 @@
+package com.quanttrading.evaluation;
+
+import com.quanttrading.model.PriceSeries;
+import com.quanttrading.model.TradeSignal;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * 成交模拟器
+ * 按日期顺序遍历一次行情，以现金和持股分别记账，同时生成资金曲线、日收益率和列式交易记录。
+ * 空仓时的买入信号以当前现金的positionSize比例建仓，持仓时的卖出信号全部平仓。
+ * 成交价在收盘价基础上计入一半的买卖价差和滑点，手续费按成交金额扣除。
+ * 默认参数（全仓、无价差、无滑点）与原有的全仓买入/全部卖出规则结果完全一致。
+ * 配置完成后可被多个线程同时使用。
+ */
+public class ExecutionSimulator {
+    private final EvaluationParameters parameters;
+    private double positionSize = 1.0;
+    private double spread = 0.0;
+    private SlippageModel slippageModel = SlippageModel.none();
+
+    public ExecutionSimulator(EvaluationParameters parameters) {
+        this.parameters = parameters;
+    }
+
+    public EvaluationParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * 设置建仓时投入的现金比例
+     * @param positionSize (0, 1]，1表示全仓
+     */
+    public ExecutionSimulator setPositionSize(double positionSize) {
+        if (positionSize <= 0 || positionSize > 1) {
+            throw new IllegalArgumentException("Position size must be in (0, 1]");
+        }
+        this.positionSize = positionSize;
+        return this;
+    }
+
+    /**
+     * 设置买卖价差（相对收盘价的比例），买入价和卖出价各偏离一半
+     */
+    public ExecutionSimulator setSpread(double spread) {
+        if (spread < 0 || spread >= 1) {
+            throw new IllegalArgumentException("Spread must be in [0, 1)");
+        }
+        this.spread = spread;
+        return this;
+    }
+
+    public double getPositionSize() {
+        return positionSize;
+    }
+
+    public double getSpread() {
+        return spread;
+    }
+
+    public ExecutionSimulator setSlippageModel(SlippageModel slippageModel) {
+        this.slippageModel = slippageModel;
+        return this;
+    }
+
+    public SlippageModel getSlippageModel() {
+        return slippageModel;
+    }
+
+    /**
+     * 复制当前配置，之后对任一方的修改互不影响
+     */
+    public ExecutionSimulator copy() {
+        ExecutionSimulator copy = new ExecutionSimulator(parameters);
+        copy.positionSize = positionSize;
+        copy.spread = spread;
+        copy.slippageModel = slippageModel;
+        return copy;
+    }
+
+    /**
+     * 运行回测模拟
+     * @param series 行情序列
+     * @param signals 交易信号
+     * @return 回测结果，没有信号时为空结果
+     */
+    public BacktestResult simulate(PriceSeries series, Map<LocalDate, TradeSignal> signals) {
+        if (signals == null || signals.isEmpty()) {
+            return BacktestResult.empty();
+        }
+
+        double initialCapital = parameters.getInitialCapital();
+        double transactionFee = parameters.getTransactionFee();
+        double halfSpread = spread / 2;
+
+        int n = series.size();
+        LocalDate[] dates = new LocalDate[n];
+        double[] prices = new double[n];
+        double[] values = new double[n];
+        double[] dailyReturns = new double[n];
+        int numReturns = 0;
+        TradeLedger.Builder ledger = new TradeLedger.Builder();
+
+        double cash = initialCapital;
+        double shares = 0;
+        double previousValue = initialCapital;
+
+        // 当前持仓的建仓信息
+        int entryIndex = -1;
+        double entryPrice = 0.0;
+        double entryCost = 0.0;
+
+        for (int i = 0; i < n; i++) {
+            LocalDate date = series.dateAt(i);
+            double price = series.closeAt(i);
+            dates[i] = date;
+            prices[i] = price;
+
+            // 交易前的组合价值（按收盘价估值）和日收益率
+            double currentValue = cash + shares * price;
+            values[i] = currentValue;
+            if (previousValue > 0) {
+                dailyReturns[numReturns++] = (currentValue - previousValue) / previousValue;
+            }
+            previousValue = currentValue;
+
+            TradeSignal signal = signals.get(date);
+            if (signal == TradeSignal.BUY) {
+                if (shares == 0 && cash > 0) {
+                    double budget = positionSize * cash;
+                    double fee = budget * transactionFee;
+                    double slippage = slippageModel.slippage(price, (budget - fee) / price, series.get(i).getVolume());
+                    double fillPrice = price * (1 + halfSpread) * (1 + slippage);
+                    shares = (budget - fee) / fillPrice;
+                    cash -= budget;
+                    entryIndex = i;
+                    entryPrice = fillPrice;
+                    entryCost = fee + shares * (fillPrice - price);
+                }
+            } else if (signal == TradeSignal.SELL) {
+                if (shares > 0) {
+                    double slippage = slippageModel.slippage(price, shares, series.get(i).getVolume());
+                    double fillPrice = price * (1 - halfSpread) * (1 - slippage);
+                    double amount = shares * fillPrice;
+                    double fee = amount * transactionFee;
+                    cash += amount - fee;
+                    double cost = entryCost + fee + shares * (price - fillPrice);
+                    ledger.add(entryIndex, i, entryPrice, fillPrice,
+                            (fillPrice - entryPrice) / entryPrice - 2 * transactionFee, shares, cost); // 考虑双向交易费用
+                    shares = 0;
+                }
+            }
+        }
+
+        // 期末仍持仓时按最后一天的价格卖出
+        double finalValue = cash;
+        if (shares > 0) {
+            int last = n - 1;
+            double lastPrice = prices[last];
+            double slippage = slippageModel.slippage(lastPrice, shares, series.get(last).getVolume());
+            double fillPrice = lastPrice * (1 - halfSpread) * (1 - slippage);
+            double amount = shares * fillPrice;
+            double fee = amount * transactionFee;
+            finalValue = cash + amount - fee;
+            double cost = entryCost + fee + shares * (lastPrice - fillPrice);
+            ledger.add(entryIndex, last, entryPrice, fillPrice,
+                    (fillPrice - entryPrice) / entryPrice - 2 * transactionFee, shares, cost);
+        }
+
+        EquityCurve curve = new EquityCurve(dates, prices, values, Arrays.copyOf(dailyReturns, numReturns),
+                initialCapital, finalValue);
+        return new BacktestResult(curve, ledger.build(), parameters);
+    }
+}
@@ -0,0 +1,34 @@
+package com.quanttrading.evaluation;
+
+/**
+ * 基于回测结果的策略指标扩展接口（SPI）
+ * 指标只读取共享的资金曲线和交易记录，不再自行模拟交易。
+ * 实现类需要提供无参构造函数，并在META-INF/services/com.quanttrading.evaluation.PerformanceMetric中登记，
+ * 由{@link PerformanceMetricRegistry}通过ServiceLoader加载。
+ */
+public interface PerformanceMetric {
+
+    /**
+     * 结果Map中的键，如sharpeRatio
+     */
+    String getKey();
+
+    /**
+     * 获取指标名称
+     */
+    String getName();
+
+    /**
+     * 获取指标描述
+     */
+    String getDescription();
+
+    /**
+     * 计算指标
+     * @param curve 资金曲线
+     * @param ledger 交易记录
+     * @param parameters 评估参数
+     * @return 指标值
+     */
+    double calculate(EquityCurve curve, TradeLedger ledger, EvaluationParameters parameters);
+}
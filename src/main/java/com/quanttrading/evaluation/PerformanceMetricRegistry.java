@@ -0,0 +1,72 @@
+package com.quanttrading.evaluation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * 通过ServiceLoader发现的策略指标
+ * 类路径上的其他jar只需在META-INF/services中登记即可增加新的指标。
+ */
+public class PerformanceMetricRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceMetricRegistry.class);
+
+    private static volatile List<PerformanceMetric> metrics;
+
+    private PerformanceMetricRegistry() {
+    }
+
+    /**
+     * 已登记的全部指标，按登记顺序排列
+     */
+    public static List<PerformanceMetric> getMetrics() {
+        List<PerformanceMetric> loaded = metrics;
+        if (loaded == null) {
+            synchronized (PerformanceMetricRegistry.class) {
+                loaded = metrics;
+                if (loaded == null) {
+                    loaded = new ArrayList<>();
+                    for (PerformanceMetric metric : ServiceLoader.load(PerformanceMetric.class)) {
+                        loaded.add(metric);
+                    }
+                    loaded = Collections.unmodifiableList(loaded);
+                    metrics = loaded;
+                    logger.debug("Loaded {} performance metrics", loaded.size());
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 按键查找指标
+     * @param key 结果Map中的键，如sharpeRatio
+     */
+    public static PerformanceMetric getMetric(String key) {
+        for (PerformanceMetric metric : getMetrics()) {
+            if (metric.getKey().equals(key)) {
+                return metric;
+            }
+        }
+        throw new IllegalArgumentException("Unknown performance metric: " + key);
+    }
+
+    /**
+     * 在同一份回测结果上计算全部指标，空结果的指标均为0
+     * @return 键到指标值的映射，按登记顺序排列
+     */
+    public static Map<String, Double> evaluate(BacktestResult result) {
+        Map<String, Double> results = new LinkedHashMap<>();
+        for (PerformanceMetric metric : getMetrics()) {
+            results.put(metric.getKey(), result.isEmpty() ? 0.0 :
+                    metric.calculate(result.getEquityCurve(), result.getTradeLedger(), result.getParameters()));
+        }
+        return results;
+    }
+}
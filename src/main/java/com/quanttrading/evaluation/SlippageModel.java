@@ -0,0 +1,69 @@
+package com.quanttrading.evaluation;
+
+/**
+ * 滑点模型
+ * 返回成交价相对收盘价的不利偏移比例：买入价为收盘价×(1+滑点)，卖出价为收盘价×(1-滑点)。
+ */
+public interface SlippageModel {
+
+    /**
+     * @param price 收盘价
+     * @param quantity 成交股数
+     * @param volume 当日成交量，未知时为0
+     * @return 滑点比例，取值[0, 1)
+     */
+    double slippage(double price, double quantity, long volume);
+
+    /**
+     * 无滑点
+     */
+    static SlippageModel none() {
+        return (price, quantity, volume) -> 0.0;
+    }
+
+    /**
+     * 固定比例滑点
+     * @param rate 比例，如0.0005表示5个基点
+     */
+    static SlippageModel fixed(double rate) {
+        if (rate < 0 || rate >= 1) {
+            throw new IllegalArgumentException("Slippage rate must be in [0, 1)");
+        }
+        return (price, quantity, volume) -> rate;
+    }
+
+    /**
+     * 平方根市场冲击模型：滑点 = 系数×sqrt(成交股数/当日成交量)，成交量未知时不计滑点
+     * @param coefficient 冲击系数
+     */
+    static SlippageModel volumeImpact(double coefficient) {
+        if (coefficient < 0) {
+            throw new IllegalArgumentException("Impact coefficient must not be negative");
+        }
+        return (price, quantity, volume) -> {
+            if (volume <= 0) {
+                return 0.0;
+            }
+            return Math.min(coefficient * Math.sqrt(quantity / volume), 0.99);
+        };
+    }
+
+    /**
+     * 按名称创建滑点模型
+     * @param type none、fixed或volume
+     * @param rate fixed时为滑点比例，volume时为冲击系数
+     */
+    static SlippageModel create(String type, double rate) {
+        switch (type.toLowerCase()) {
+            case "none":
+                return none();
+            case "fixed":
+                return fixed(rate);
+            case "volume":
+            case "volume_impact":
+                return volumeImpact(rate);
+            default:
+                throw new IllegalArgumentException("Unsupported slippage model: " + type);
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package com.quanttrading.evaluation;
 
-import com.quanttrading.evaluation.factory.EvaluationMetricFactory;
+import com.quanttrading.model.PriceSeries;
 import com.quanttrading.model.StockData;
 import com.quanttrading.model.TradeSignal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -29,49 +29,46 @@ public class StrategyEvaluator {
 
     /**
      * 评估策略性能
-     * @param stockData 股票数据
+     * @param stockData 股票数据（不会被修改）
      * @param signals 交易信号
-     * @param parameters 评估参数
+     * @param parameters 评估参数，为null时使用默认参数
      * @return 评估结果
      */
     public static Map<String, Double> evaluateStrategy(List<StockData> stockData, Map<LocalDate, TradeSignal> signals, Map<String, Object> parameters) {
-        if (parameters == null) {
-            parameters = new HashMap<>();
-            parameters.put("initialCapital", 10000.0);
-            parameters.put("transactionFee", 0.001);
-            parameters.put("riskFreeRate", 0.02);
-            parameters.put("tradingDaysPerYear", 252);
+        try {
+            // 只模拟一次，所有指标共享资金曲线和交易记录
+            return evaluateBacktest(EquitySimulator.simulate(stockData, signals, EvaluationParameters.fromMap(parameters)));
+        } catch (Exception e) {
+            logger.error("Error evaluating strategy: {}", e.getMessage());
+            return new LinkedHashMap<>();
         }
+    }
 
-        Map<String, Double> results = new HashMap<>();
-
-        // 计算各项指标
+    /**
+     * 在已排序的行情序列上评估策略性能，不修改任何输入，可被多个线程同时调用
+     * @param series 行情序列
+     * @param signals 交易信号
+     * @param parameters 评估参数
+     * @return 评估结果
+     */
+    public static Map<String, Double> evaluateStrategy(PriceSeries series, Map<LocalDate, TradeSignal> signals,
+                                                       EvaluationParameters parameters) {
         try {
-            // 年化收益率
-            EvaluationMetric annualReturn = EvaluationMetricFactory.createMetric("annual_return");
-            double annualReturnValue = annualReturn.calculate(stockData, signals, parameters);
-            results.put("annualReturn", annualReturnValue);
-
-            // 夏普比率
-            EvaluationMetric sharpeRatio = EvaluationMetricFactory.createMetric("sharpe_ratio");
-            double sharpeRatioValue = sharpeRatio.calculate(stockData, signals, parameters);
-            results.put("sharpeRatio", sharpeRatioValue);
-
-            // 最大回撤
-            EvaluationMetric maxDrawdown = EvaluationMetricFactory.createMetric("max_drawdown");
-            double maxDrawdownValue = maxDrawdown.calculate(stockData, signals, parameters);
-            results.put("maxDrawdown", maxDrawdownValue);
-
-            // 胜率
-            EvaluationMetric winRate = EvaluationMetricFactory.createMetric("win_rate");
-            double winRateValue = winRate.calculate(stockData, signals, parameters);
-            results.put("winRate", winRateValue);
-
-            logger.info("Strategy evaluation completed with {} metrics", results.size());
+            return evaluateBacktest(EquitySimulator.simulate(series, signals, parameters));
         } catch (Exception e) {
             logger.error("Error evaluating strategy: {}", e.getMessage());
+            return new LinkedHashMap<>();
         }
+    }
 
+    /**
+     * 在已完成的回测上计算全部已登记的指标
+     * @param backtest 回测结果
+     * @return 评估结果
+     */
+    public static Map<String, Double> evaluateBacktest(BacktestResult backtest) {
+        Map<String, Double> results = new LinkedHashMap<>(PerformanceMetricRegistry.evaluate(backtest));
+        logger.info("Strategy evaluation completed with {} metrics", results.size());
         return results;
     }
 
@@ -85,6 +82,30 @@ public class StrategyEvaluator {
         System.out.printf("Sharpe Ratio: %.2f\n", results.getOrDefault("sharpeRatio", 0.0));
         System.out.printf("Maximum Drawdown: %.2f%%\n", results.getOrDefault("maxDrawdown", 0.0) * 100);
         System.out.printf("Win Rate: %.2f%%\n", results.getOrDefault("winRate", 0.0) * 100);
+        System.out.printf("Sortino Ratio: %.2f\n", results.getOrDefault("sortinoRatio", 0.0));
+        System.out.printf("Calmar Ratio: %.2f\n", results.getOrDefault("calmarRatio", 0.0));
+        System.out.printf("CVaR (daily): %.2f%%\n", results.getOrDefault("cvar", 0.0) * 100);
+        System.out.printf("Turnover (annual): %.2f\n", results.getOrDefault("turnover", 0.0));
+        System.out.printf("Exposure: %.2f%%\n", results.getOrDefault("exposure", 0.0) * 100);
         System.out.println("=========================================\n");
     }
+
+    /**
+     * 打印自助法置信区间
+     * @param result 自助法结果
+     */
+    public static void printConfidenceIntervals(BootstrapResult result) {
+        System.out.printf("\n====== Bootstrap %.0f%% Confidence Intervals (%d resamples) ======\n",
+                result.getConfidenceLevel() * 100, result.getNumResamples());
+        printInterval("Annual Return", result.getAnnualReturn(), 100, "%");
+        printInterval("Sharpe Ratio", result.getSharpeRatio(), 1, "");
+        printInterval("Maximum Drawdown", result.getMaxDrawdown(), 100, "%");
+        printInterval("Win Rate", result.getWinRate(), 100, "%");
+        System.out.println("=================================================================\n");
+    }
+
+    private static void printInterval(String name, BootstrapResult.ConfidenceInterval interval, double scale, String unit) {
+        System.out.printf("%s: %.2f%s [%.2f%s, %.2f%s]\n", name,
+                interval.getEstimate() * scale, unit, interval.getLower() * scale, unit, interval.getUpper() * scale, unit);
+    }
 }
\ No newline at end of file
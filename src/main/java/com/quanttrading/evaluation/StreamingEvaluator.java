@@ -0,0 +1,232 @@
+package com.quanttrading.evaluation;
+
+import com.quanttrading.model.StockData;
+import com.quanttrading.model.TradeSignal;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 流式策略评估器
+ * 每根新K线以O(1)的代价更新持仓和各项指标，适用于实盘或模拟盘逐日发布当前指标，无需重放历史。
+ * 只支持全仓买入、全部卖出且仅扣手续费的成交模型，结果与默认参数的{@link ExecutionSimulator}一致，
+ * 不支持按比例建仓、买卖价差和滑点。夏普比率用Welford算法维护日收益率的均值和方差，
+ * 最大回撤维护历史峰值，胜率维护交易计数，年化收益率按期末清仓后的复利净值计算。
+ * 数据不足时（少于两个日收益率或不足一天）对应指标返回0。
+ */
+public class StreamingEvaluator {
+
+    private final double initialCapital;
+    private final double transactionFee;
+    private final double riskFreeRate;
+    private final int tradingDaysPerYear;
+
+    // 持仓状态
+    private double capital;
+    private double shares;
+    private double previousValue;
+    private double lastPrice;
+    private LocalDate startDate;
+    private LocalDate lastDate;
+    private long numBars;
+
+    // 日收益率的均值和离差平方和（Welford）
+    private long numReturns;
+    private double meanReturn;
+    private double sumSquaredDiff;
+
+    // 回撤
+    private double peak;
+    private double maxDrawdown;
+
+    // 交易配对，与资金是否充足无关
+    private boolean inTrade;
+    private double entryPrice;
+    private int numTrades;
+    private int winningTrades;
+
+    public StreamingEvaluator() {
+        this(null);
+    }
+
+    /**
+     * @param parameters 计算参数：initialCapital、transactionFee、riskFreeRate、tradingDaysPerYear，可为null
+     */
+    public StreamingEvaluator(Map<String, Object> parameters) {
+        EvaluationParameters evaluationParameters = EvaluationParameters.fromMap(parameters);
+        this.initialCapital = evaluationParameters.getInitialCapital();
+        this.transactionFee = evaluationParameters.getTransactionFee();
+        this.riskFreeRate = evaluationParameters.getRiskFreeRate();
+        this.tradingDaysPerYear = evaluationParameters.getTradingDaysPerYear();
+        reset();
+    }
+
+    /**
+     * 清空状态，从初始资金重新开始
+     */
+    public void reset() {
+        capital = initialCapital;
+        shares = 0;
+        previousValue = initialCapital;
+        lastPrice = 0;
+        startDate = null;
+        lastDate = null;
+        numBars = 0;
+        numReturns = 0;
+        meanReturn = 0;
+        sumSquaredDiff = 0;
+        peak = 0;
+        maxDrawdown = 0;
+        inTrade = false;
+        entryPrice = 0;
+        numTrades = 0;
+        winningTrades = 0;
+    }
+
+    /**
+     * 处理一根新K线
+     * @param data 行情数据，日期必须晚于上一根
+     * @param signal 当天的交易信号，可为null
+     */
+    public void update(StockData data, TradeSignal signal) {
+        update(data.getDate(), data.getClose(), signal);
+    }
+
+    /**
+     * 处理一根新K线
+     * @param date 日期，必须晚于上一根
+     * @param price 收盘价
+     * @param signal 当天的交易信号，可为null
+     */
+    public void update(LocalDate date, double price, TradeSignal signal) {
+        if (lastDate != null && !date.isAfter(lastDate)) {
+            throw new IllegalArgumentException("Bars must arrive in date order: " + date + " after " + lastDate);
+        }
+        if (startDate == null) {
+            startDate = date;
+        }
+        lastDate = date;
+        lastPrice = price;
+
+        // 交易前的组合价值
+        double currentValue = capital + shares * price;
+        if (previousValue > 0) {
+            double dailyReturn = (currentValue - previousValue) / previousValue;
+            numReturns++;
+            double delta = dailyReturn - meanReturn;
+            meanReturn += delta / numReturns;
+            sumSquaredDiff += delta * (dailyReturn - meanReturn);
+        }
+        previousValue = currentValue;
+
+        if (numBars == 0 || currentValue > peak) {
+            peak = currentValue;
+        }
+        double drawdown = (peak - currentValue) / peak;
+        if (drawdown > maxDrawdown) {
+            maxDrawdown = drawdown;
+        }
+        numBars++;
+
+        if (signal == TradeSignal.BUY) {
+            if (capital > 0) {
+                double fee = capital * transactionFee;
+                shares = (capital - fee) / price;
+                capital = 0;
+            }
+            if (!inTrade) {
+                inTrade = true;
+                entryPrice = price;
+            }
+        } else if (signal == TradeSignal.SELL) {
+            if (shares > 0) {
+                double amount = shares * price;
+                capital = amount - amount * transactionFee;
+                shares = 0;
+            }
+            if (inTrade) {
+                recordTrade(price);
+                inTrade = false;
+            }
+        }
+    }
+
+    private void recordTrade(double exitPrice) {
+        double profit = (exitPrice - entryPrice) / entryPrice - 2 * transactionFee;
+        numTrades++;
+        if (profit > 0) {
+            winningTrades++;
+        }
+    }
+
+    /**
+     * 按最新价格清仓后的组合价值
+     */
+    public double getCurrentValue() {
+        if (shares > 0) {
+            double amount = shares * lastPrice;
+            return capital + amount - amount * transactionFee;
+        }
+        return capital;
+    }
+
+    public long getNumBars() {
+        return numBars;
+    }
+
+    public double getAnnualizedReturn() {
+        if (startDate == null) {
+            return 0.0;
+        }
+        long days = ChronoUnit.DAYS.between(startDate, lastDate);
+        if (days == 0) {
+            return 0.0;
+        }
+        double totalReturn = (getCurrentValue() - initialCapital) / initialCapital;
+        double yearsInvested = days / 365.0;
+        return Math.pow(1 + totalReturn, 1 / yearsInvested) - 1;
+    }
+
+    public double getSharpeRatio() {
+        if (numReturns < 2) {
+            return 0.0;
+        }
+        double dailyStdDev = Math.sqrt(sumSquaredDiff / (numReturns - 1));
+        double annualizedReturn = meanReturn * tradingDaysPerYear;
+        double annualizedRisk = dailyStdDev * Math.sqrt(tradingDaysPerYear);
+        return (annualizedReturn - riskFreeRate) / annualizedRisk;
+    }
+
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    /**
+     * 胜率，未平仓的交易按最新价格计入
+     */
+    public double getWinRate() {
+        int trades = numTrades;
+        int wins = winningTrades;
+        if (inTrade) {
+            trades++;
+            if ((lastPrice - entryPrice) / entryPrice - 2 * transactionFee > 0) {
+                wins++;
+            }
+        }
+        return trades == 0 ? 0.0 : (double) wins / trades;
+    }
+
+    /**
+     * 当前的各项指标，键与{@link StrategyEvaluator#evaluateStrategy}的结果一致
+     */
+    public Map<String, Double> getMetrics() {
+        Map<String, Double> results = new HashMap<>();
+        results.put("annualReturn", getAnnualizedReturn());
+        results.put("sharpeRatio", getSharpeRatio());
+        results.put("maxDrawdown", getMaxDrawdown());
+        results.put("winRate", getWinRate());
+        return results;
+    }
+}
@@ -0,0 +1,146 @@
+package com.quanttrading.evaluation;
+
+import java.util.Arrays;
+
+/**
+ * 列式存储的交易记录（不可变）
+ * 每笔交易从买入成交开始、到卖出成交或最后一个交易日结束。价格为包含价差和滑点的成交价，收益率已扣除双向手续费。
+ */
+public final class TradeLedger {
+    private final int size;
+    private final int[] entryIndices;
+    private final int[] exitIndices;
+    private final double[] entryPrices;
+    private final double[] exitPrices;
+    private final double[] profits;
+    private final double[] quantities;
+    private final double[] costs;
+
+    private TradeLedger(Builder builder) {
+        this.size = builder.size;
+        this.entryIndices = Arrays.copyOf(builder.entryIndices, size);
+        this.exitIndices = Arrays.copyOf(builder.exitIndices, size);
+        this.entryPrices = Arrays.copyOf(builder.entryPrices, size);
+        this.exitPrices = Arrays.copyOf(builder.exitPrices, size);
+        this.profits = Arrays.copyOf(builder.profits, size);
+        this.quantities = Arrays.copyOf(builder.quantities, size);
+        this.costs = Arrays.copyOf(builder.costs, size);
+    }
+
+    /**
+     * 交易笔数
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 买入所在交易日在资金曲线中的下标
+     */
+    public int entryIndexAt(int trade) {
+        return entryIndices[trade];
+    }
+
+    /**
+     * 卖出所在交易日在资金曲线中的下标
+     */
+    public int exitIndexAt(int trade) {
+        return exitIndices[trade];
+    }
+
+    /**
+     * 买入成交价
+     */
+    public double entryPriceAt(int trade) {
+        return entryPrices[trade];
+    }
+
+    /**
+     * 卖出成交价
+     */
+    public double exitPriceAt(int trade) {
+        return exitPrices[trade];
+    }
+
+    /**
+     * 扣除双向手续费后的收益率
+     */
+    public double profitAt(int trade) {
+        return profits[trade];
+    }
+
+    /**
+     * 成交股数
+     */
+    public double quantityAt(int trade) {
+        return quantities[trade];
+    }
+
+    /**
+     * 买卖两次成交的总成本（手续费、价差和滑点），以金额计
+     */
+    public double costAt(int trade) {
+        return costs[trade];
+    }
+
+    /**
+     * 逐笔收益率的副本
+     */
+    public double[] getProfits() {
+        return profits.clone();
+    }
+
+    /**
+     * 盈利交易笔数
+     */
+    public int countWinning() {
+        int winning = 0;
+        for (int i = 0; i < size; i++) {
+            if (profits[i] > 0) {
+                winning++;
+            }
+        }
+        return winning;
+    }
+
+    static class Builder {
+        private int size;
+        private int[] entryIndices = new int[16];
+        private int[] exitIndices = new int[16];
+        private double[] entryPrices = new double[16];
+        private double[] exitPrices = new double[16];
+        private double[] profits = new double[16];
+        private double[] quantities = new double[16];
+        private double[] costs = new double[16];
+
+        void add(int entryIndex, int exitIndex, double entryPrice, double exitPrice, double profit,
+                 double quantity, double cost) {
+            if (size == entryIndices.length) {
+                int capacity = size * 2;
+                entryIndices = Arrays.copyOf(entryIndices, capacity);
+                exitIndices = Arrays.copyOf(exitIndices, capacity);
+                entryPrices = Arrays.copyOf(entryPrices, capacity);
+                exitPrices = Arrays.copyOf(exitPrices, capacity);
+                profits = Arrays.copyOf(profits, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                costs = Arrays.copyOf(costs, capacity);
+            }
+            entryIndices[size] = entryIndex;
+            exitIndices[size] = exitIndex;
+            entryPrices[size] = entryPrice;
+            exitPrices[size] = exitPrice;
+            profits[size] = profit;
+            quantities[size] = quantity;
+            costs[size] = cost;
+            size++;
+        }
+
+        TradeLedger build() {
+            return new TradeLedger(this);
+        }
+    }
+}
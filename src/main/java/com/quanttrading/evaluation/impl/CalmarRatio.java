@@ -0,0 +1,39 @@
+package com.quanttrading.evaluation.impl;
+
+import com.quanttrading.evaluation.EquityCurve;
+import com.quanttrading.evaluation.EvaluationParameters;
+import com.quanttrading.evaluation.PerformanceMetric;
+import com.quanttrading.evaluation.TradeLedger;
+
+/**
+ * 卡玛比率 (Calmar Ratio)
+ * 年化收益率与最大回撤之比。没有回撤时为0。
+ */
+public class CalmarRatio implements PerformanceMetric {
+    private final AnnualizedReturn annualizedReturn = new AnnualizedReturn();
+    private final MaximumDrawdown maximumDrawdown = new MaximumDrawdown();
+
+    @Override
+    public double calculate(EquityCurve curve, TradeLedger ledger, EvaluationParameters parameters) {
+        double maxDrawdown = maximumDrawdown.calculate(curve, ledger, parameters);
+        if (maxDrawdown == 0) {
+            return 0.0;
+        }
+        return annualizedReturn.calculate(curve, ledger, parameters) / maxDrawdown;
+    }
+
+    @Override
+    public String getKey() {
+        return "calmarRatio";
+    }
+
+    @Override
+    public String getName() {
+        return "Calmar Ratio";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Annualized return divided by the maximum drawdown";
+    }
+}
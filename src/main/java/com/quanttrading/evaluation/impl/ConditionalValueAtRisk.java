@@ -0,0 +1,47 @@
+package com.quanttrading.evaluation.impl;
+
+import com.quanttrading.evaluation.EquityCurve;
+import com.quanttrading.evaluation.EvaluationParameters;
+import com.quanttrading.evaluation.PerformanceMetric;
+import com.quanttrading.evaluation.TradeLedger;
+
+import java.util.Arrays;
+
+/**
+ * 条件风险价值 (CVaR / Expected Shortfall)
+ * 最差的(1-置信水平)部分日收益率的平均损失，以正数表示。
+ */
+public class ConditionalValueAtRisk implements PerformanceMetric {
+
+    @Override
+    public double calculate(EquityCurve curve, TradeLedger ledger, EvaluationParameters parameters) {
+        double[] returns = curve.getDailyReturns();
+        if (returns.length == 0) {
+            return 0.0;
+        }
+        Arrays.sort(returns);
+
+        // 尾部至少包含一个样本
+        int tailSize = Math.max(1, (int) Math.ceil(returns.length * (1 - parameters.getCvarConfidence())));
+        double tailSum = 0.0;
+        for (int i = 0; i < tailSize; i++) {
+            tailSum += returns[i];
+        }
+        return -tailSum / tailSize;
+    }
+
+    @Override
+    public String getKey() {
+        return "cvar";
+    }
+
+    @Override
+    public String getName() {
+        return "Conditional Value at Risk";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Average daily loss in the worst tail of the return distribution";
+    }
+}
@@ -0,0 +1,42 @@
+package com.quanttrading.evaluation.impl;
+
+import com.quanttrading.evaluation.EquityCurve;
+import com.quanttrading.evaluation.EvaluationParameters;
+import com.quanttrading.evaluation.PerformanceMetric;
+import com.quanttrading.evaluation.TradeLedger;
+
+/**
+ * 持仓暴露度 (Exposure)
+ * 持有仓位的交易日区间占全部区间的比例。
+ */
+public class Exposure implements PerformanceMetric {
+
+    @Override
+    public double calculate(EquityCurve curve, TradeLedger ledger, EvaluationParameters parameters) {
+        int intervals = curve.size() - 1;
+        if (intervals <= 0) {
+            return 0.0;
+        }
+
+        long held = 0;
+        for (int t = 0; t < ledger.size(); t++) {
+            held += ledger.exitIndexAt(t) - ledger.entryIndexAt(t);
+        }
+        return (double) held / intervals;
+    }
+
+    @Override
+    public String getKey() {
+        return "exposure";
+    }
+
+    @Override
+    public String getName() {
+        return "Exposure";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Fraction of the backtest period with an open position";
+    }
+}
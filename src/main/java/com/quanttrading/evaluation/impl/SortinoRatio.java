@@ -0,0 +1,56 @@
+package com.quanttrading.evaluation.impl;
+
+import com.quanttrading.evaluation.EquityCurve;
+import com.quanttrading.evaluation.EvaluationParameters;
+import com.quanttrading.evaluation.PerformanceMetric;
+import com.quanttrading.evaluation.TradeLedger;
+
+/**
+ * 索提诺比率 (Sortino Ratio)
+ * 与夏普比率相同的年化超额收益，但只用负的日收益率计算下行波动率。没有下行波动时为0。
+ */
+public class SortinoRatio implements PerformanceMetric {
+
+    @Override
+    public double calculate(EquityCurve curve, TradeLedger ledger, EvaluationParameters parameters) {
+        int n = curve.numReturns();
+        if (n == 0) {
+            return 0.0;
+        }
+
+        // 平均日回报率和下行偏差（目标收益率为0）
+        double sum = 0.0;
+        double downsideSum = 0.0;
+        for (int i = 0; i < n; i++) {
+            double r = curve.returnAt(i);
+            sum += r;
+            if (r < 0) {
+                downsideSum += r * r;
+            }
+        }
+        double downsideDeviation = Math.sqrt(downsideSum / n);
+        if (downsideDeviation == 0) {
+            return 0.0;
+        }
+
+        int tradingDaysPerYear = parameters.getTradingDaysPerYear();
+        double annualizedReturn = sum / n * tradingDaysPerYear;
+        double annualizedDownsideRisk = downsideDeviation * Math.sqrt(tradingDaysPerYear);
+        return (annualizedReturn - parameters.getRiskFreeRate()) / annualizedDownsideRisk;
+    }
+
+    @Override
+    public String getKey() {
+        return "sortinoRatio";
+    }
+
+    @Override
+    public String getName() {
+        return "Sortino Ratio";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Excess return per unit of downside volatility";
+    }
+}
@@ -0,0 +1,53 @@
+package com.quanttrading.evaluation.impl;
+
+import com.quanttrading.evaluation.EquityCurve;
+import com.quanttrading.evaluation.EvaluationParameters;
+import com.quanttrading.evaluation.PerformanceMetric;
+import com.quanttrading.evaluation.TradeLedger;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 年化换手率 (Turnover)
+ * 单边成交金额除以平均组合价值，再按年折算。全仓买入再全部卖出一次约为1，按比例建仓时相应减少。
+ */
+public class Turnover implements PerformanceMetric {
+
+    @Override
+    public double calculate(EquityCurve curve, TradeLedger ledger, EvaluationParameters parameters) {
+        long days = ChronoUnit.DAYS.between(curve.getStartDate(), curve.getEndDate());
+        if (ledger.isEmpty() || days == 0) {
+            return 0.0;
+        }
+
+        // 成交金额按成交明细计算：股数乘以买入和卖出的成交价
+        double traded = 0.0;
+        for (int t = 0; t < ledger.size(); t++) {
+            traded += ledger.quantityAt(t) * (ledger.entryPriceAt(t) + ledger.exitPriceAt(t));
+        }
+
+        double valueSum = 0.0;
+        for (int i = 0; i < curve.size(); i++) {
+            valueSum += curve.valueAt(i);
+        }
+        double averageValue = valueSum / curve.size();
+
+        double yearsInvested = days / 365.0;
+        return traded / 2 / averageValue / yearsInvested;
+    }
+
+    @Override
+    public String getKey() {
+        return "turnover";
+    }
+
+    @Override
+    public String getName() {
+        return "Turnover";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Annualized one-way traded value relative to the average portfolio value";
+    }
+}
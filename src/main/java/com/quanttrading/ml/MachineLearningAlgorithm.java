@@ -15,12 +15,29 @@ public interface MachineLearningAlgorithm {
     void train(double[][] features, double[] labels);
 
     /**
-     * 预测单个样本
-     * @param features 单个样本的特征
+     * 能否在当前模型上只用新增样本继续训练（热启动）
+     * 返回false时调用方必须传入完整的训练数据，否则模型只会从新增样本重建
+     * @param numFeatures 新样本的特征数
+     */
+    default boolean canContinueTraining(int numFeatures) {
+        return false;
+    }
+
+    /**
+     * 预测单个样本，结果只取决于传入的特征，与之前的调用无关
+     * @param features 单个样本的特征；序列模型为按时间顺序首尾相接的{@link #getSequenceLength()}行特征
      * @return 预测结果
      */
     double predict(double[] features);
 
+    /**
+     * 单次预测需要的连续样本行数，默认为1
+     * 大于1时调用方把截至当前的这么多行特征按时间顺序首尾相接后传给{@link #predict(double[])}
+     */
+    default int getSequenceLength() {
+        return 1;
+    }
+
     /**
      * 批量预测
      * @param features 多个样本的特征
@@ -31,14 +48,16 @@ public interface MachineLearningAlgorithm {
     /**
      * 保存模型
      * @param path 保存路径
+     * @return 保存成功返回true
      */
-    void saveModel(String path);
+    boolean saveModel(String path);
 
     /**
      * 加载模型
      * @param path 模型路径
+     * @return 加载成功返回true，文件缺失或损坏时返回false
      */
-    void loadModel(String path);
+    boolean loadModel(String path);
 
     /**
      * 获取模型参数
@@ -46,12 +65,28 @@ public interface MachineLearningAlgorithm {
      */
     Map<String, Object> getParameters();
 
+    /**
+     * 决定训练结果的模型参数，用作模型缓存键的一部分
+     * 默认为全部参数；线程数、日志开关等不影响训练结果的设置应排除在外
+     */
+    default Map<String, Object> getModelParameters() {
+        return getParameters();
+    }
+
     /**
      * 设置模型参数
      * @param parameters 参数映射
      */
     void setParameters(Map<String, Object> parameters);
 
+    /**
+     * 已训练的模型能否被多个线程同时调用predict
+     * 默认不保证，需要并行预测的组件（如置换特征重要性）对这样的算法改为依次调用
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
     /**
      * 获取特征重要性（如果算法支持）
      * @return 特征名称到重要性的映射
@@ -0,0 +1,243 @@
+package com.quanttrading.ml;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * 基于内容哈希的模型缓存
+ * 以训练数据、标签、算法类型和模型参数的SHA-256作为键，将训练好的模型保存在本地磁盘，
+ * 命中时直接加载而不重新训练。总大小超过上限时按最近使用时间淘汰。
+ * 条目先写入临时目录再原子重命名，不会出现只写了一半的条目；加载失败的条目被删除并视为未命中。
+ */
+public class ModelRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(ModelRegistry.class);
+    private static final String MODEL_FILE = "model.bin";
+    private static final String TEMP_PREFIX = ".tmp-";
+
+    private final Path directory;
+    private final long maxSizeBytes;
+
+    public ModelRegistry(String directory, long maxSizeBytes) {
+        this.directory = Paths.get(directory);
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * 计算模型缓存键
+     * @param algorithm 算法实例（使用其类型和{@link MachineLearningAlgorithm#getModelParameters()}）
+     * @param features 训练特征
+     * @param labels 训练标签
+     * @return 十六进制哈希字符串
+     */
+    public String computeKey(MachineLearningAlgorithm algorithm, double[][] features, double[] labels) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+
+        digest.update(algorithm.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        // 使用TreeMap保证参数顺序稳定
+        digest.update(new TreeMap<>(algorithm.getModelParameters()).toString().getBytes(StandardCharsets.UTF_8));
+
+        int numFeatures = features.length > 0 ? features[0].length : 0;
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(16, numFeatures * Double.BYTES));
+        buffer.putInt(features.length).putInt(numFeatures).putInt(labels.length);
+        buffer.flip();
+        digest.update(buffer);
+
+        for (double[] row : features) {
+            buffer.clear();
+            if (row.length * Double.BYTES > buffer.capacity()) {
+                buffer = ByteBuffer.allocate(row.length * Double.BYTES);
+            }
+            for (double value : row) {
+                buffer.putDouble(value);
+            }
+            buffer.flip();
+            digest.update(buffer);
+        }
+
+        ByteBuffer labelBuffer = ByteBuffer.allocate(labels.length * Double.BYTES);
+        for (double label : labels) {
+            labelBuffer.putDouble(label);
+        }
+        labelBuffer.flip();
+        digest.update(labelBuffer);
+
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 尝试从缓存加载模型
+     * @param key 模型缓存键
+     * @param algorithm 要加载模型的算法实例
+     * @return 命中并加载成功返回true；条目损坏时删除该条目并返回false，调用方应重新训练
+     */
+    public synchronized boolean load(String key, MachineLearningAlgorithm algorithm) {
+        Path entry = directory.resolve(key);
+        Path modelFile = entry.resolve(MODEL_FILE);
+        if (!Files.exists(modelFile)) {
+            logger.info("Model cache miss: {}", key);
+            return false;
+        }
+
+        boolean loaded;
+        try {
+            loaded = algorithm.loadModel(modelFile.toString());
+        } catch (RuntimeException e) {
+            logger.error("Error loading cached model {}: {}", key, e.getMessage());
+            loaded = false;
+        }
+        if (!loaded) {
+            logger.warn("Discarding unreadable model cache entry: {}", key);
+            delete(entry);
+            return false;
+        }
+
+        touch(entry);
+        logger.info("Model cache hit: {}", key);
+        return true;
+    }
+
+    /**
+     * 将训练好的模型存入缓存
+     * @param key 模型缓存键
+     * @param algorithm 已训练的算法实例
+     */
+    public synchronized void store(String key, MachineLearningAlgorithm algorithm) {
+        Path entry = directory.resolve(key);
+        Path temp = directory.resolve(TEMP_PREFIX + key + "-" + System.nanoTime());
+        try {
+            Files.createDirectories(temp);
+        } catch (IOException e) {
+            logger.error("Error creating model cache entry: {}", e.getMessage());
+            return;
+        }
+
+        // 先完整写入临时目录，成功后再重命名为正式条目
+        boolean saved;
+        try {
+            saved = algorithm.saveModel(temp.resolve(MODEL_FILE).toString());
+        } catch (RuntimeException e) {
+            logger.error("Error saving model to cache: {}", e.getMessage());
+            saved = false;
+        }
+        if (!saved) {
+            delete(temp);
+            return;
+        }
+
+        try {
+            if (Files.exists(entry)) {
+                delete(entry);
+            }
+            Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Error committing model cache entry {}: {}", key, e.getMessage());
+            delete(temp);
+            return;
+        }
+        touch(entry);
+        logger.info("Model stored in cache: {}", key);
+
+        evict();
+    }
+
+    /**
+     * 按最近使用时间淘汰缓存条目，直到总大小不超过上限
+     */
+    private void evict() {
+        List<Path> entries = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(directory)) {
+            // 跳过其他线程或进程正在写入的临时目录
+            stream.filter(Files::isDirectory)
+                    .filter(path -> !path.getFileName().toString().startsWith(TEMP_PREFIX))
+                    .forEach(entries::add);
+        } catch (IOException e) {
+            logger.error("Error listing model cache: {}", e.getMessage());
+            return;
+        }
+
+        long totalSize = 0;
+        for (Path entry : entries) {
+            totalSize += sizeOf(entry);
+        }
+
+        entries.sort(Comparator.comparing(ModelRegistry::lastModified));
+        // 保留最新的条目
+        for (int i = 0; i < entries.size() - 1 && totalSize > maxSizeBytes; i++) {
+            Path entry = entries.get(i);
+            long size = sizeOf(entry);
+            delete(entry);
+            totalSize -= size;
+            logger.info("Evicted cached model {} ({} bytes)", entry.getFileName(), size);
+        }
+    }
+
+    private static void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.warn("Could not update model cache timestamp: {}", e.getMessage());
+        }
+    }
+
+    private static FileTime lastModified(Path entry) {
+        try {
+            return Files.getLastModifiedTime(entry);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long sizeOf(Path entry) {
+        try (Stream<Path> files = Files.walk(entry)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> {
+                try {
+                    return Files.size(file);
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void delete(Path entry) {
+        try (Stream<Path> files = Files.walk(entry)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Could not evict cached model {}: {}", entry.getFileName(), e.getMessage());
+        }
+    }
+}
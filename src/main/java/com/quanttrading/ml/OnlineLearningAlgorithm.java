@@ -0,0 +1,13 @@
+package com.quanttrading.ml;
+
+/**
+ * 支持在线学习的机器学习算法接口
+ */
+public interface OnlineLearningAlgorithm extends MachineLearningAlgorithm {
+    /**
+     * 用一个新样本增量更新模型，无需重新训练
+     * @param features 单个样本的特征
+     * @param label 样本标签
+     */
+    void update(double[] features, double label);
+}
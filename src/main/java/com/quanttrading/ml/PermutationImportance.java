@@ -0,0 +1,166 @@
+package com.quanttrading.ml;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * 与模型无关的置换特征重要性
+ * 每次打乱一个特征列，用批量predict在留出数据上重新评分，以均方误差的增量作为该特征的重要性。
+ * 每列使用独立的随机数流，结果与线程数无关。算法声明线程安全（{@link MachineLearningAlgorithm#isThreadSafe()}）时各列并行计算，
+ * 否则依次计算。批量predict返回的预测数与样本数不一致的算法（如按滑动窗口预测的LSTM）无法逐样本评分，会被跳过。
+ */
+public class PermutationImportance {
+    private static final Logger logger = LoggerFactory.getLogger(PermutationImportance.class);
+
+    private final int numRepeats;
+    private final long seed;
+    private final int numThreads;
+
+    public PermutationImportance() {
+        this(3, 42L, 0);
+    }
+
+    /**
+     * @param numRepeats 每个特征的置换次数，结果取平均
+     * @param seed 随机种子
+     * @param numThreads 并行线程数，0表示使用公共ForkJoinPool
+     */
+    public PermutationImportance(int numRepeats, long seed, int numThreads) {
+        if (numRepeats < 1) {
+            throw new IllegalArgumentException("Number of repeats must be positive");
+        }
+        this.numRepeats = numRepeats;
+        this.seed = seed;
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * 计算每个特征置换后均方误差的平均增量
+     * @param algorithm 已训练的算法
+     * @param features 评估用的特征矩阵（不会被修改）
+     * @param labels 评估用的标签
+     * @return 与特征列一一对应的误差增量；算法的预测数与样本数不一致时返回空数组
+     */
+    public double[] computeScores(MachineLearningAlgorithm algorithm, double[][] features, double[] labels) {
+        if (features.length != labels.length) {
+            throw new IllegalArgumentException("Features and labels must have the same length");
+        }
+        if (features.length == 0) {
+            return new double[0];
+        }
+
+        int numFeatures = features[0].length;
+        double[] baselinePredictions = algorithm.predict(features);
+        if (baselinePredictions.length != labels.length) {
+            logger.warn("Skipping permutation importance for {}: {} predictions for {} samples",
+                    algorithm.getClass().getSimpleName(), baselinePredictions.length, labels.length);
+            return new double[0];
+        }
+        double baseline = meanSquaredError(baselinePredictions, labels);
+
+        // 预先为每列拆分随机数流，保证结果可复现
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[numFeatures];
+        for (int f = 0; f < numFeatures; f++) {
+            streams[f] = root.split();
+        }
+
+        double[] scores = new double[numFeatures];
+        long startTime = System.currentTimeMillis();
+        if (!algorithm.isThreadSafe()) {
+            for (int f = 0; f < numFeatures; f++) {
+                scores[f] = permutedError(algorithm, features, labels, f, streams[f]) - baseline;
+            }
+            logger.info("Permutation importance computed sequentially for {} features on {} samples in {} ms",
+                    numFeatures, features.length, System.currentTimeMillis() - startTime);
+            return scores;
+        }
+
+        ForkJoinPool pool = numThreads > 0 ? new ForkJoinPool(numThreads) : ForkJoinPool.commonPool();
+        try {
+            pool.submit(() -> IntStream.range(0, numFeatures).parallel().forEach(f ->
+                    scores[f] = permutedError(algorithm, features, labels, f, streams[f]) - baseline)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Permutation importance interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Permutation importance failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            if (pool != ForkJoinPool.commonPool()) {
+                pool.shutdown();
+            }
+        }
+
+        logger.info("Permutation importance computed for {} features on {} samples in {} ms",
+                numFeatures, features.length, System.currentTimeMillis() - startTime);
+        return scores;
+    }
+
+    /**
+     * 计算归一化的特征重要性（负的增量记为0），格式与{@link MachineLearningAlgorithm#getFeatureImportance()}一致
+     * @param featureNames 特征名称，可为null
+     */
+    public Map<String, Double> computeImportance(MachineLearningAlgorithm algorithm, double[][] features,
+                                                 double[] labels, String[] featureNames) {
+        double[] scores = computeScores(algorithm, features, labels);
+
+        Map<String, Double> importance = new HashMap<>();
+        double total = 0;
+        for (double score : scores) {
+            total += Math.max(0, score);
+        }
+        if (total > 0) {
+            for (int i = 0; i < scores.length; i++) {
+                String name = (featureNames != null && i < featureNames.length) ?
+                        featureNames[i] : "feature" + i;
+                importance.put(name, Math.max(0, scores[i]) / total);
+            }
+        }
+        return importance;
+    }
+
+    /**
+     * 在一份私有副本上反复置换一列并评分
+     */
+    private double permutedError(MachineLearningAlgorithm algorithm, double[][] features, double[] labels,
+                                 int feature, SplittableRandom rng) {
+        int numSamples = features.length;
+        double[][] permuted = new double[numSamples][];
+        double[] column = new double[numSamples];
+        for (int i = 0; i < numSamples; i++) {
+            permuted[i] = features[i].clone();
+            column[i] = features[i][feature];
+        }
+
+        double sum = 0;
+        for (int r = 0; r < numRepeats; r++) {
+            for (int i = numSamples - 1; i > 0; i--) {
+                int j = rng.nextInt(i + 1);
+                double tmp = column[i];
+                column[i] = column[j];
+                column[j] = tmp;
+            }
+            for (int i = 0; i < numSamples; i++) {
+                permuted[i][feature] = column[i];
+            }
+            sum += meanSquaredError(algorithm.predict(permuted), labels);
+        }
+        return sum / numRepeats;
+    }
+
+    private static double meanSquaredError(double[] predictions, double[] labels) {
+        double sum = 0;
+        for (int i = 0; i < labels.length; i++) {
+            double error = predictions[i] - labels[i];
+            sum += error * error;
+        }
+        return sum / labels.length;
+    }
+}
@@ -1,7 +1,13 @@
 package com.quanttrading.ml.factory;
 
 import com.quanttrading.ml.MachineLearningAlgorithm;
+import com.quanttrading.ml.impl.HistogramGradientBoostingAlgorithm;
+import com.quanttrading.ml.impl.LSTMAlgorithm;
+import com.quanttrading.ml.impl.RecursiveLeastSquaresAlgorithm;
+import com.quanttrading.ml.impl.RidgeRegressionAlgorithm;
 import com.quanttrading.ml.impl.SimpleRandomForestAlgorithm;
+import com.quanttrading.ml.impl.SmileGradientBoostingAlgorithm;
+import com.quanttrading.ml.impl.SmileRandomForestAlgorithm;
 import com.quanttrading.ml.impl.WekaRandomForestAlgorithm;
 
 import java.util.Map;
@@ -39,6 +45,30 @@ public class MLAlgorithmFactory {
             case "simple_randomforest":
                 algorithm = new SimpleRandomForestAlgorithm();
                 break;
+            case "lstm":
+                algorithm = new LSTMAlgorithm();
+                break;
+            case "rls":
+            case "online_rls":
+                algorithm = new RecursiveLeastSquaresAlgorithm();
+                break;
+            case "ridge":
+            case "ridge_regression":
+                algorithm = new RidgeRegressionAlgorithm();
+                break;
+            case "gbt":
+            case "histogram_gbt":
+            case "gradient_boosting":
+                algorithm = new HistogramGradientBoostingAlgorithm();
+                break;
+            case "smile_rf":
+            case "smile_randomforest":
+                algorithm = new SmileRandomForestAlgorithm();
+                break;
+            case "smile_gbt":
+            case "smile_gradient_boosting":
+                algorithm = new SmileGradientBoostingAlgorithm();
+                break;
             default:
                 throw new IllegalArgumentException("Unsupported algorithm type: " + type);
         }
@@ -0,0 +1,591 @@
+package com.quanttrading.ml.impl;
+
+import com.quanttrading.ml.MachineLearningAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * 基于直方图的梯度提升回归树
+ * 训练前将特征按分位数预先分箱，每轮提升在各特征上并行构建直方图寻找最佳分割，
+ * 使用收缩系数控制步长，并在按时间顺序划分的验证集上提前停止。
+ * 训练完成后所有树编译为扁平数组，推理时只做数组查找。
+ */
+public class HistogramGradientBoostingAlgorithm implements MachineLearningAlgorithm {
+    private static final Logger logger = LoggerFactory.getLogger(HistogramGradientBoostingAlgorithm.class);
+
+    private int numIterations;
+    private double learningRate;
+    private int maxDepth;
+    private int maxBins;
+    private int minSamplesLeaf;
+    private double l2Regularization;
+    private double validationFraction;
+    private int earlyStoppingRounds;
+    private int numThreads;
+    private String[] featureNames;
+
+    private CompiledForest forest;
+
+    public HistogramGradientBoostingAlgorithm() {
+        this(200, 0.1, 6);
+    }
+
+    public HistogramGradientBoostingAlgorithm(int numIterations, double learningRate, int maxDepth) {
+        this.numIterations = numIterations;
+        this.learningRate = learningRate;
+        this.maxDepth = maxDepth;
+        this.maxBins = 255;
+        this.minSamplesLeaf = 20;
+        this.l2Regularization = 1.0;
+        this.validationFraction = 0.1;
+        this.earlyStoppingRounds = 20;
+        this.numThreads = 0; // 0表示使用公共ForkJoinPool
+    }
+
+    public void setFeatureNames(String[] featureNames) {
+        this.featureNames = featureNames;
+    }
+
+    @Override
+    public void train(double[][] features, double[] labels) {
+        if (features.length != labels.length) {
+            throw new IllegalArgumentException("Features and labels must have the same length");
+        }
+        if (features.length == 0) {
+            throw new IllegalArgumentException("No training samples");
+        }
+
+        ForkJoinPool pool = numThreads > 0 ? new ForkJoinPool(numThreads) : ForkJoinPool.commonPool();
+        try {
+            forest = pool.submit(() -> new Trainer(features, labels).fit()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Gradient boosting training interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Gradient boosting training failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            if (pool != ForkJoinPool.commonPool()) {
+                pool.shutdown();
+            }
+        }
+
+        logger.info("Histogram gradient boosting trained with {} trees, {} nodes",
+                forest.treeOffsets.length, forest.splitFeature.length);
+    }
+
+    @Override
+    public double predict(double[] features) {
+        if (forest == null) {
+            throw new IllegalStateException("Model not trained yet");
+        }
+        return forest.predict(features);
+    }
+
+    @Override
+    public double[] predict(double[][] features) {
+        if (forest == null) {
+            throw new IllegalStateException("Model not trained yet");
+        }
+
+        double[] predictions = new double[features.length];
+        for (int i = 0; i < features.length; i++) {
+            predictions[i] = forest.predict(features[i]);
+        }
+        return predictions;
+    }
+
+    /**
+     * 实际使用的树数量（提前停止后可能少于numIterations）
+     */
+    public int getNumTrees() {
+        return forest != null ? forest.treeOffsets.length : 0;
+    }
+
+    @Override
+    public boolean saveModel(String path) {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(path))) {
+            oos.writeObject(forest);
+            logger.info("Gradient boosting model saved to: {}", path);
+            return true;
+        } catch (IOException e) {
+            logger.error("Error saving model: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean loadModel(String path) {
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(path))) {
+            forest = (CompiledForest) ois.readObject();
+            logger.info("Gradient boosting model loaded from: {}", path);
+            return true;
+        } catch (IOException | ClassNotFoundException e) {
+            logger.error("Error loading model: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        // 编译后的森林只读，预测不修改任何状态
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> getParameters() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("numIterations", numIterations);
+        params.put("learningRate", learningRate);
+        params.put("maxDepth", maxDepth);
+        params.put("maxBins", maxBins);
+        params.put("minSamplesLeaf", minSamplesLeaf);
+        params.put("l2Regularization", l2Regularization);
+        params.put("validationFraction", validationFraction);
+        params.put("earlyStoppingRounds", earlyStoppingRounds);
+        params.put("numThreads", numThreads);
+        return params;
+    }
+
+    /**
+     * 线程数不影响训练结果
+     */
+    @Override
+    public Map<String, Object> getModelParameters() {
+        Map<String, Object> params = getParameters();
+        params.remove("numThreads");
+        return params;
+    }
+
+    @Override
+    public void setParameters(Map<String, Object> parameters) {
+        if (parameters.containsKey("numIterations")) {
+            this.numIterations = (int) parameters.get("numIterations");
+        }
+        if (parameters.containsKey("learningRate")) {
+            this.learningRate = (double) parameters.get("learningRate");
+        }
+        if (parameters.containsKey("maxDepth")) {
+            this.maxDepth = (int) parameters.get("maxDepth");
+        }
+        if (parameters.containsKey("maxBins")) {
+            this.maxBins = Math.max(2, Math.min(256, (int) parameters.get("maxBins")));
+        }
+        if (parameters.containsKey("minSamplesLeaf")) {
+            this.minSamplesLeaf = (int) parameters.get("minSamplesLeaf");
+        }
+        if (parameters.containsKey("l2Regularization")) {
+            this.l2Regularization = (double) parameters.get("l2Regularization");
+        }
+        if (parameters.containsKey("validationFraction")) {
+            this.validationFraction = (double) parameters.get("validationFraction");
+        }
+        if (parameters.containsKey("earlyStoppingRounds")) {
+            this.earlyStoppingRounds = (int) parameters.get("earlyStoppingRounds");
+        }
+        if (parameters.containsKey("numThreads")) {
+            this.numThreads = (int) parameters.get("numThreads");
+        }
+    }
+
+    @Override
+    public Map<String, Double> getFeatureImportance() {
+        Map<String, Double> importance = new HashMap<>();
+        if (forest == null) {
+            return importance;
+        }
+
+        double total = Arrays.stream(forest.featureGains).sum();
+        if (total > 0) {
+            for (int i = 0; i < forest.featureGains.length; i++) {
+                String name = (featureNames != null && i < featureNames.length) ?
+                        featureNames[i] : "feature" + i;
+                importance.put(name, forest.featureGains[i] / total);
+            }
+        }
+        return importance;
+    }
+
+    /**
+     * 单次训练过程的状态
+     */
+    class Trainer {
+        private final double[][] features;
+        private final double[] labels;
+        private final int numSamples;
+        private final int numFeatures;
+        private final int numTrain;
+
+        // 每个特征的分箱上界，以及按特征存放的样本分箱编号
+        private final double[][] binEdges;
+        private final byte[][] bins;
+
+        private final double[] residuals;
+        private final double[] scores;
+        private final int[] rows;
+
+        // 增长中的节点数组
+        private int[] splitFeature = new int[64];
+        private int[] splitBin = new int[64];
+        private double[] threshold = new double[64];
+        private int[] leftChild = new int[64];
+        private int[] rightChild = new int[64];
+        private double[] leafValue = new double[64];
+        private double[] splitGain = new double[64];
+        private int numNodes;
+
+        Trainer(double[][] features, double[] labels) {
+            this.features = features;
+            this.labels = labels;
+            this.numSamples = features.length;
+            this.numFeatures = features[0].length;
+
+            // 按时间顺序划分：最后validationFraction比例的样本作为验证集
+            int numValidation = (int) (numSamples * validationFraction);
+            if (earlyStoppingRounds <= 0 || numValidation < 1 || numSamples - numValidation < 2 * minSamplesLeaf) {
+                numValidation = 0;
+            }
+            this.numTrain = numSamples - numValidation;
+
+            this.binEdges = new double[numFeatures][];
+            this.bins = new byte[numFeatures][];
+            this.residuals = new double[numTrain];
+            this.scores = new double[numSamples];
+            this.rows = new int[numTrain];
+        }
+
+        CompiledForest fit() {
+            // 预先分箱（按特征并行）
+            IntStream.range(0, numFeatures).parallel().forEach(this::binFeature);
+
+            double baseScore = 0;
+            for (int i = 0; i < numTrain; i++) {
+                baseScore += labels[i];
+            }
+            baseScore /= numTrain;
+            Arrays.fill(scores, baseScore);
+
+            List<Integer> treeOffsets = new ArrayList<>();
+            double bestLoss = Double.MAX_VALUE;
+            int bestRounds = 0;
+
+            for (int round = 0; round < numIterations; round++) {
+                for (int i = 0; i < numTrain; i++) {
+                    residuals[i] = labels[i] - scores[i];
+                    rows[i] = i;
+                }
+
+                int root = buildNode(0, numTrain, 0);
+                treeOffsets.add(root);
+
+                if (numTrain == numSamples) {
+                    bestRounds = round + 1;
+                    continue;
+                }
+
+                // 验证集损失
+                double loss = 0;
+                for (int i = numTrain; i < numSamples; i++) {
+                    scores[i] += leafValue[findLeaf(root, i)];
+                    double diff = labels[i] - scores[i];
+                    loss += diff * diff;
+                }
+                loss /= numSamples - numTrain;
+
+                if (loss < bestLoss) {
+                    bestLoss = loss;
+                    bestRounds = round + 1;
+                } else if (round + 1 - bestRounds >= earlyStoppingRounds) {
+                    logger.info("Early stopping at round {}, best round {} with validation MSE {}",
+                            round + 1, bestRounds, bestLoss);
+                    break;
+                }
+            }
+
+            return compile(baseScore, treeOffsets, bestRounds);
+        }
+
+        /**
+         * 每个样本沿分箱编号走过全部已训练的树累加得到的预测值，即编译前的树的预测
+         */
+        double[] getScores() {
+            return scores;
+        }
+
+        /**
+         * 按分位数为一个特征确定分箱边界并计算所有样本的分箱编号
+         */
+        private void binFeature(int feature) {
+            double[] values = new double[numTrain];
+            for (int i = 0; i < numTrain; i++) {
+                values[i] = features[i][feature];
+            }
+            Arrays.sort(values);
+
+            int numUnique = 0;
+            for (int i = 0; i < numTrain; i++) {
+                if (i == 0 || values[i] != values[i - 1]) {
+                    values[numUnique++] = values[i];
+                }
+            }
+
+            double[] edges;
+            if (numUnique <= maxBins) {
+                // 取相邻不同值的中点作为边界
+                edges = new double[Math.max(0, numUnique - 1)];
+                for (int k = 0; k < edges.length; k++) {
+                    edges[k] = (values[k] + values[k + 1]) / 2;
+                }
+            } else {
+                double[] quantiles = new double[maxBins - 1];
+                int count = 0;
+                for (int k = 1; k < maxBins; k++) {
+                    double edge = values[(int) ((long) k * numUnique / maxBins)];
+                    if (count == 0 || edge > quantiles[count - 1]) {
+                        quantiles[count++] = edge;
+                    }
+                }
+                edges = Arrays.copyOf(quantiles, count);
+            }
+            binEdges[feature] = edges;
+
+            byte[] featureBins = new byte[numSamples];
+            for (int i = 0; i < numSamples; i++) {
+                featureBins[i] = (byte) binOf(edges, features[i][feature]);
+            }
+            bins[feature] = featureBins;
+        }
+
+        private int binOf(double[] edges, double value) {
+            int low = 0;
+            int high = edges.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (value <= edges[mid]) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * 递归构建节点，rows[start, end)为落入该节点的训练样本
+         */
+        private int buildNode(int start, int end, int depth) {
+            int count = end - start;
+            double sum = 0;
+            for (int i = start; i < end; i++) {
+                sum += residuals[rows[i]];
+            }
+
+            Split best = null;
+            if (depth < maxDepth && count >= 2 * minSamplesLeaf) {
+                final double parentSum = sum;
+                best = IntStream.range(0, numFeatures).parallel()
+                        .mapToObj(f -> findBestSplit(f, start, end, parentSum))
+                        .filter(Objects::nonNull)
+                        .reduce(null, Split::better);
+            }
+
+            int node = addNode();
+            if (best == null || best.gain <= 0) {
+                double value = learningRate * sum / (count + l2Regularization);
+                leafValue[node] = value;
+                splitFeature[node] = -1;
+                for (int i = start; i < end; i++) {
+                    scores[rows[i]] += value;
+                }
+                return node;
+            }
+
+            // 原地划分样本
+            byte[] featureBins = bins[best.feature];
+            int mid = start;
+            for (int i = start; i < end; i++) {
+                int row = rows[i];
+                if ((featureBins[row] & 0xFF) <= best.bin) {
+                    rows[i] = rows[mid];
+                    rows[mid++] = row;
+                }
+            }
+
+            splitFeature[node] = best.feature;
+            splitBin[node] = best.bin;
+            threshold[node] = binEdges[best.feature][best.bin];
+            splitGain[node] = best.gain;
+            int left = buildNode(start, mid, depth + 1);
+            int right = buildNode(mid, end, depth + 1);
+            leftChild[node] = left;
+            rightChild[node] = right;
+            return node;
+        }
+
+        private Split findBestSplit(int feature, int start, int end, double parentSum) {
+            int numBins = binEdges[feature].length + 1;
+            if (numBins < 2) {
+                return null;
+            }
+
+            double[] histSum = new double[numBins];
+            int[] histCount = new int[numBins];
+            byte[] featureBins = bins[feature];
+            for (int i = start; i < end; i++) {
+                int row = rows[i];
+                int bin = featureBins[row] & 0xFF;
+                histSum[bin] += residuals[row];
+                histCount[bin]++;
+            }
+
+            int count = end - start;
+            double parentScore = parentSum * parentSum / (count + l2Regularization);
+            double leftSum = 0;
+            int leftCount = 0;
+            double bestGain = 0;
+            int bestBin = -1;
+            for (int bin = 0; bin < numBins - 1; bin++) {
+                leftSum += histSum[bin];
+                leftCount += histCount[bin];
+                int rightCount = count - leftCount;
+                if (leftCount < minSamplesLeaf) {
+                    continue;
+                }
+                if (rightCount < minSamplesLeaf) {
+                    break;
+                }
+                double rightSum = parentSum - leftSum;
+                double gain = leftSum * leftSum / (leftCount + l2Regularization)
+                        + rightSum * rightSum / (rightCount + l2Regularization)
+                        - parentScore;
+                if (gain > bestGain) {
+                    bestGain = gain;
+                    bestBin = bin;
+                }
+            }
+
+            return bestBin >= 0 ? new Split(feature, bestBin, bestGain) : null;
+        }
+
+        private int findLeaf(int node, int row) {
+            while (splitFeature[node] >= 0) {
+                node = (bins[splitFeature[node]][row] & 0xFF) <= splitBin[node] ? leftChild[node] : rightChild[node];
+            }
+            return node;
+        }
+
+        private int addNode() {
+            if (numNodes == splitFeature.length) {
+                int capacity = numNodes * 2;
+                splitFeature = Arrays.copyOf(splitFeature, capacity);
+                splitBin = Arrays.copyOf(splitBin, capacity);
+                threshold = Arrays.copyOf(threshold, capacity);
+                leftChild = Arrays.copyOf(leftChild, capacity);
+                rightChild = Arrays.copyOf(rightChild, capacity);
+                leafValue = Arrays.copyOf(leafValue, capacity);
+                splitGain = Arrays.copyOf(splitGain, capacity);
+            }
+            return numNodes++;
+        }
+
+        /**
+         * 截取前numTrees棵树并编译为扁平数组
+         */
+        private CompiledForest compile(double baseScore, List<Integer> treeOffsets, int numTrees) {
+            int nodeCount = numTrees < treeOffsets.size() ? treeOffsets.get(numTrees) : numNodes;
+            int[] offsets = new int[numTrees];
+            for (int t = 0; t < numTrees; t++) {
+                offsets[t] = treeOffsets.get(t);
+            }
+
+            double[] featureGains = new double[numFeatures];
+            for (int node = 0; node < nodeCount; node++) {
+                if (splitFeature[node] >= 0) {
+                    featureGains[splitFeature[node]] += splitGain[node];
+                }
+            }
+
+            return new CompiledForest(baseScore, offsets,
+                    Arrays.copyOf(splitFeature, nodeCount),
+                    Arrays.copyOf(threshold, nodeCount),
+                    Arrays.copyOf(leftChild, nodeCount),
+                    Arrays.copyOf(rightChild, nodeCount),
+                    Arrays.copyOf(leafValue, nodeCount),
+                    featureGains);
+        }
+    }
+
+    /**
+     * 候选分割
+     */
+    private static class Split {
+        final int feature;
+        final int bin;
+        final double gain;
+
+        Split(int feature, int bin, double gain) {
+            this.feature = feature;
+            this.bin = bin;
+            this.gain = gain;
+        }
+
+        static Split better(Split a, Split b) {
+            if (a == null) {
+                return b;
+            }
+            if (b == null) {
+                return a;
+            }
+            if (b.gain > a.gain || (b.gain == a.gain && b.feature < a.feature)) {
+                return b;
+            }
+            return a;
+        }
+    }
+
+    /**
+     * 编译后的森林，所有树的节点存放在同一组扁平数组中
+     */
+    static class CompiledForest implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final double baseScore;
+        private final int[] treeOffsets;
+        private final int[] splitFeature;
+        private final double[] threshold;
+        private final int[] leftChild;
+        private final int[] rightChild;
+        private final double[] leafValue;
+        private final double[] featureGains;
+
+        CompiledForest(double baseScore, int[] treeOffsets, int[] splitFeature, double[] threshold,
+                       int[] leftChild, int[] rightChild, double[] leafValue, double[] featureGains) {
+            this.baseScore = baseScore;
+            this.treeOffsets = treeOffsets;
+            this.splitFeature = splitFeature;
+            this.threshold = threshold;
+            this.leftChild = leftChild;
+            this.rightChild = rightChild;
+            this.leafValue = leafValue;
+            this.featureGains = featureGains;
+        }
+
+        double predict(double[] features) {
+            double sum = baseScore;
+            for (int root : treeOffsets) {
+                int node = root;
+                int feature;
+                while ((feature = splitFeature[node]) >= 0) {
+                    node = features[feature] <= threshold[node] ? leftChild[node] : rightChild[node];
+                }
+                sum += leafValue[node];
+            }
+            return sum;
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.quanttrading.ml.impl;
 
 import com.quanttrading.ml.MachineLearningAlgorithm;
+import org.deeplearning4j.datasets.iterator.ExistingDataSetIterator;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
 import org.deeplearning4j.nn.conf.BackpropType;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.WorkspaceMode;
+import org.deeplearning4j.nn.conf.layers.FeedForwardLayer;
 import org.deeplearning4j.nn.conf.layers.LSTM;
 import org.deeplearning4j.nn.conf.layers.RnnOutputLayer;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
@@ -12,8 +15,11 @@ import org.deeplearning4j.nn.weights.WeightInit;
 import org.deeplearning4j.util.ModelSerializer;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.AsyncDataSetIterator;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.INDArrayIndex;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.learning.config.Adam;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 import org.slf4j.Logger;
@@ -21,11 +27,15 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * 基于DL4J的LSTM实现
+ * ND4J的计算线程数是进程级设置，由调用方在创建模型前统一配置，本类不修改。
  */
 public class LSTMAlgorithm implements MachineLearningAlgorithm {
     private static final Logger logger = LoggerFactory.getLogger(LSTMAlgorithm.class);
@@ -37,6 +47,8 @@ public class LSTMAlgorithm implements MachineLearningAlgorithm {
     private double learningRate;
     private int numEpochs;
     private int timeSeriesLength;
+    private int batchSize;
+    private int prefetchBuffer;
 
     public LSTMAlgorithm() {
         this(10, 50, 1, 0.01, 100, 10);
@@ -50,14 +62,18 @@ public class LSTMAlgorithm implements MachineLearningAlgorithm {
         this.learningRate = learningRate;
         this.numEpochs = numEpochs;
         this.timeSeriesLength = timeSeriesLength;
+        this.batchSize = 32;
+        this.prefetchBuffer = 4;
 
         initModel();
     }
 
     private void initModel() {
-        // 配置LSTM网络
+        // 配置LSTM网络，训练和推理都使用工作区复用张量内存
         MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
                 .seed(123)
+                .trainingWorkspaceMode(WorkspaceMode.ENABLED)
+                .inferenceWorkspaceMode(WorkspaceMode.ENABLED)
                 .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT)
                 .updater(new Adam(learningRate))
                 .l2(1e-5)
@@ -91,108 +107,181 @@ public class LSTMAlgorithm implements MachineLearningAlgorithm {
             throw new IllegalArgumentException("Features and labels must have the same length");
         }
 
-        // 将输入数据转换为DL4J的格式 [samples, features, timeSteps]
-        int numSamples = features.length - timeSeriesLength;
+        // 输入维度与训练特征不一致时按实际特征数重建网络
+        if (features.length > 0 && features[0].length != inputSize) {
+            logger.info("Adjusting LSTM inputSize from {} to {}", inputSize, features[0].length);
+            this.inputSize = features[0].length;
+            initModel();
+        }
 
-        for (int epoch = 0; epoch < numEpochs; epoch++) {
-            double totalLoss = 0;
+        int numSamples = features.length - timeSeriesLength;
+        if (numSamples <= 0) {
+            logger.error("Not enough samples to build sequences of length {}", timeSeriesLength);
+            return;
+        }
 
-            for (int i = 0; i < numSamples; i++) {
-                // 创建时间序列数据
-                INDArray input = Nd4j.zeros(1, inputSize, timeSeriesLength);
-                for (int t = 0; t < timeSeriesLength; t++) {
-                    double[] featureVector = features[i + t];
-                    for (int j = 0; j < inputSize && j < featureVector.length; j++) {
-                        input.putScalar(new int[]{0, j, t}, featureVector[j]);
-                    }
-                }
+        // 一次性构建全部训练序列 [samples, features, timeSteps]
+        DataSet trainingData = createTrainingDataSet(features, labels, numSamples);
 
-                // 创建标签
-                INDArray output = Nd4j.zeros(1, outputSize, timeSeriesLength);
-                output.putScalar(new int[]{0, 0, timeSeriesLength - 1}, labels[i + timeSeriesLength]);
+        // 小批量训练，每批是整块数据沿样本维的视图，后台线程预取下一批数据
+        AsyncDataSetIterator iterator = new AsyncDataSetIterator(
+                new ExistingDataSetIterator(toBatches(trainingData, numSamples)), prefetchBuffer);
+        try {
+            for (int epoch = 0; epoch < numEpochs; epoch++) {
+                iterator.reset();
+                model.fit(iterator);
 
-                // 创建数据集
-                DataSet dataSet = new DataSet(input, output);
+                // 每个epoch结束时计算一次整体损失
+                double loss = model.score(trainingData);
+                logger.info("Epoch {}/{}: Loss = {}", epoch + 1, numEpochs, loss);
+            }
+        } finally {
+            iterator.shutdown();
+        }
 
-                // 训练模型
-                model.fit(dataSet);
+        logger.info("Training completed with {} sequences in batches of {}", numSamples, batchSize);
+    }
 
-                // 计算损失
-                totalLoss += model.score(dataSet);
-            }
+    /**
+     * 从原始特征构建训练数据集，只在每个序列的最后一个时间步计算损失
+     */
+    private DataSet createTrainingDataSet(double[][] features, double[] labels, int numSamples) {
+        int lastStep = timeSeriesLength - 1;
+        double[] inputBuffer = new double[numSamples * inputSize * timeSeriesLength];
+        double[] labelBuffer = new double[numSamples * outputSize * timeSeriesLength];
+        double[] maskBuffer = new double[numSamples * timeSeriesLength];
 
-            double avgLoss = totalLoss / numSamples;
-            logger.info("Epoch {}/{}: Average Loss = {}", epoch + 1, numEpochs, avgLoss);
+        for (int i = 0; i < numSamples; i++) {
+            fillSequence(features, i, inputBuffer, i * inputSize * timeSeriesLength);
+            labelBuffer[i * outputSize * timeSeriesLength + lastStep] = labels[i + timeSeriesLength];
+            maskBuffer[i * timeSeriesLength + lastStep] = 1.0;
         }
 
-        logger.info("Training completed");
+        INDArray input = Nd4j.create(inputBuffer, new long[]{numSamples, inputSize, timeSeriesLength}, 'c');
+        INDArray output = Nd4j.create(labelBuffer, new long[]{numSamples, outputSize, timeSeriesLength}, 'c');
+        INDArray labelMask = Nd4j.create(maskBuffer, new long[]{numSamples, timeSeriesLength}, 'c');
+
+        return new DataSet(input, output, null, labelMask);
     }
 
-    @Override
-    public double predict(double[] features) {
-        if (features.length < timeSeriesLength * inputSize) {
-            throw new IllegalArgumentException("Insufficient features for prediction");
+    /**
+     * 把整块训练数据按batchSize切分，每批都是原数组在样本维上的连续视图，不复制也不再合并
+     */
+    private List<DataSet> toBatches(DataSet data, int numSamples) {
+        List<DataSet> batches = new ArrayList<>((numSamples + batchSize - 1) / batchSize);
+        for (int start = 0; start < numSamples; start += batchSize) {
+            INDArrayIndex rows = NDArrayIndex.interval(start, Math.min(start + batchSize, numSamples));
+            batches.add(new DataSet(
+                    data.getFeatures().get(rows, NDArrayIndex.all(), NDArrayIndex.all()),
+                    data.getLabels().get(rows, NDArrayIndex.all(), NDArrayIndex.all()),
+                    null,
+                    data.getLabelsMaskArray().get(rows, NDArrayIndex.all())));
         }
+        return batches;
+    }
 
-        // 创建时间序列数据
-        INDArray input = Nd4j.zeros(1, inputSize, timeSeriesLength);
+    /**
+     * 将从start开始的timeSeriesLength行特征按c顺序写入[features, timeSteps]块
+     */
+    private void fillSequence(double[][] features, int start, double[] buffer, int offset) {
         for (int t = 0; t < timeSeriesLength; t++) {
-            for (int j = 0; j < inputSize; j++) {
-                input.putScalar(new int[]{0, j, t}, features[t * inputSize + j]);
+            double[] featureVector = features[start + t];
+            int count = Math.min(inputSize, featureVector.length);
+            for (int j = 0; j < count; j++) {
+                buffer[offset + j * timeSeriesLength + t] = featureVector[j];
             }
         }
+    }
 
-        // 使用模型预测
-        INDArray output = model.output(input);
+    /**
+     * 预测单个样本
+     * 输入是按时间顺序首尾相接的timeSeriesLength行特征（timeSeriesLength×inputSize个值），与训练时的序列一致；
+     * 只传入单个特征向量时，把它重复timeSeriesLength步作为序列。
+     */
+    @Override
+    public synchronized double predict(double[] features) {
+        double[][] sequence = new double[timeSeriesLength][];
+        if (features.length == inputSize * timeSeriesLength) {
+            for (int t = 0; t < timeSeriesLength; t++) {
+                sequence[t] = Arrays.copyOfRange(features, t * inputSize, (t + 1) * inputSize);
+            }
+        } else if (features.length == inputSize) {
+            Arrays.fill(sequence, features);
+        } else {
+            throw new IllegalArgumentException("Expected " + inputSize + " or " + inputSize * timeSeriesLength
+                    + " features but got " + features.length);
+        }
+        double[] buffer = new double[inputSize * timeSeriesLength];
+        fillSequence(sequence, 0, buffer, 0);
+        INDArray input = Nd4j.create(buffer, new long[]{1, inputSize, timeSeriesLength}, 'c');
 
-        // 返回最后一个时间步的预测值
+        // 使用模型预测，返回最后一个时间步的预测值
+        INDArray output = model.output(input);
         return output.getDouble(0, 0, timeSeriesLength - 1);
     }
 
     @Override
-    public double[] predict(double[][] features) {
+    public int getSequenceLength() {
+        return timeSeriesLength;
+    }
+
+    @Override
+    public synchronized double[] predict(double[][] features) {
         int numSamples = features.length - timeSeriesLength + 1;
-        double[] predictions = new double[numSamples];
+        if (numSamples <= 0) {
+            return new double[0];
+        }
 
+        // 所有滑动窗口一次前向计算
+        int sequenceSize = inputSize * timeSeriesLength;
+        double[] buffer = new double[numSamples * sequenceSize];
         for (int i = 0; i < numSamples; i++) {
-            // 创建时间序列数据
-            INDArray input = Nd4j.zeros(1, inputSize, timeSeriesLength);
-            for (int t = 0; t < timeSeriesLength; t++) {
-                double[] featureVector = features[i + t];
-                for (int j = 0; j < inputSize && j < featureVector.length; j++) {
-                    input.putScalar(new int[]{0, j, t}, featureVector[j]);
-                }
-            }
-
-            // 使用模型预测
-            INDArray output = model.output(input);
+            fillSequence(features, i, buffer, i * sequenceSize);
+        }
+        INDArray input = Nd4j.create(buffer, new long[]{numSamples, inputSize, timeSeriesLength}, 'c');
 
-            // 获取最后一个时间步的预测值
-            predictions[i] = output.getDouble(0, 0, timeSeriesLength - 1);
+        // 获取每个序列最后一个时间步的预测值
+        INDArray output = model.output(input);
+        double[] predictions = new double[numSamples];
+        for (int i = 0; i < numSamples; i++) {
+            predictions[i] = output.getDouble(i, 0, timeSeriesLength - 1);
         }
 
         return predictions;
     }
 
     @Override
-    public void saveModel(String path) {
+    public boolean saveModel(String path) {
         try {
             File locationToSave = new File(path);
             ModelSerializer.writeModel(model, locationToSave, true);
             logger.info("Model saved to: {}", path);
+            return true;
         } catch (IOException e) {
             logger.error("Error saving model: {}", e.getMessage());
+            return false;
         }
     }
 
     @Override
-    public void loadModel(String path) {
+    public boolean loadModel(String path) {
         try {
             File locationToLoad = new File(path);
             model = ModelSerializer.restoreMultiLayerNetwork(locationToLoad);
-            logger.info("Model loaded from: {}", path);
+
+            // 网络结构以加载的模型为准，否则预测时会按构造参数组装输入
+            MultiLayerConfiguration conf = model.getLayerWiseConfigurations();
+            FeedForwardLayer lstmLayer = (FeedForwardLayer) conf.getConf(0).getLayer();
+            FeedForwardLayer outputLayer = (FeedForwardLayer) conf.getConf(1).getLayer();
+            this.inputSize = (int) lstmLayer.getNIn();
+            this.hiddenSize = (int) lstmLayer.getNOut();
+            this.outputSize = (int) outputLayer.getNOut();
+            this.timeSeriesLength = conf.getTbpttFwdLength();
+            logger.info("Model loaded from: {} (inputSize={}, timeSeriesLength={})", path, inputSize, timeSeriesLength);
+            return true;
         } catch (IOException e) {
             logger.error("Error loading model: {}", e.getMessage());
+            return false;
         }
     }
 
@@ -205,6 +294,18 @@ public class LSTMAlgorithm implements MachineLearningAlgorithm {
         params.put("learningRate", learningRate);
         params.put("numEpochs", numEpochs);
         params.put("timeSeriesLength", timeSeriesLength);
+        params.put("batchSize", batchSize);
+        params.put("prefetchBuffer", prefetchBuffer);
+        return params;
+    }
+
+    /**
+     * 预取缓冲区大小不影响训练结果
+     */
+    @Override
+    public Map<String, Object> getModelParameters() {
+        Map<String, Object> params = getParameters();
+        params.remove("prefetchBuffer");
         return params;
     }
 
@@ -228,6 +329,12 @@ public class LSTMAlgorithm implements MachineLearningAlgorithm {
         if (parameters.containsKey("timeSeriesLength")) {
             this.timeSeriesLength = (int) parameters.get("timeSeriesLength");
         }
+        if (parameters.containsKey("batchSize")) {
+            this.batchSize = (int) parameters.get("batchSize");
+        }
+        if (parameters.containsKey("prefetchBuffer")) {
+            this.prefetchBuffer = (int) parameters.get("prefetchBuffer");
+        }
 
         // 重新初始化模型
         initModel();
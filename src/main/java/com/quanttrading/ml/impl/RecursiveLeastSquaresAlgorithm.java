@@ -0,0 +1,195 @@
+package com.quanttrading.ml.impl;
+
+import com.quanttrading.ml.OnlineLearningAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 递归最小二乘(RLS)在线线性回归
+ * 每个新样本以秩一更新吸收，更新代价只与特征数有关，与历史长度无关。
+ * 遗忘因子小于1时对旧样本指数衰减，使模型跟随市场变化。
+ */
+public class RecursiveLeastSquaresAlgorithm implements OnlineLearningAlgorithm {
+    private static final Logger logger = LoggerFactory.getLogger(RecursiveLeastSquaresAlgorithm.class);
+
+    private double forgettingFactor;
+    private double initialCovariance;
+
+    // 第0维为截距项
+    private int dimension;
+    private double[] weights;
+    private double[] covariance;
+    private double[] gain;
+    private long numUpdates;
+
+    public RecursiveLeastSquaresAlgorithm() {
+        this(0.999, 1000.0);
+    }
+
+    public RecursiveLeastSquaresAlgorithm(double forgettingFactor, double initialCovariance) {
+        this.forgettingFactor = forgettingFactor;
+        this.initialCovariance = initialCovariance;
+    }
+
+    @Override
+    public void train(double[][] features, double[] labels) {
+        if (features.length != labels.length) {
+            throw new IllegalArgumentException("Features and labels must have the same length");
+        }
+        if (features.length == 0) {
+            throw new IllegalArgumentException("No training samples");
+        }
+
+        reset(features[0].length);
+        for (int i = 0; i < features.length; i++) {
+            update(features[i], labels[i]);
+        }
+
+        logger.info("RLS model trained with {} samples, {} features", features.length, features[0].length);
+    }
+
+    @Override
+    public void update(double[] features, double label) {
+        if (weights == null) {
+            reset(features.length);
+        }
+        if (features.length != dimension - 1) {
+            throw new IllegalArgumentException("Expected " + (dimension - 1) + " features but got " + features.length);
+        }
+
+        // gain = P * x（x[0] = 1为截距）
+        double denominator = forgettingFactor;
+        for (int i = 0; i < dimension; i++) {
+            int row = i * dimension;
+            double sum = covariance[row];
+            for (int j = 1; j < dimension; j++) {
+                sum += covariance[row + j] * features[j - 1];
+            }
+            gain[i] = sum;
+            denominator += sum * (i == 0 ? 1.0 : features[i - 1]);
+        }
+
+        // 先验误差
+        double error = label - predict(features);
+
+        // 权重更新：w += P * x * e / (lambda + x' * P * x)
+        for (int i = 0; i < dimension; i++) {
+            weights[i] += gain[i] * error / denominator;
+        }
+
+        // 协方差更新：P = (P - P * x * x' * P / denominator) / lambda，保持对称
+        for (int i = 0; i < dimension; i++) {
+            double scaledGain = gain[i] / denominator;
+            for (int j = i; j < dimension; j++) {
+                double value = (covariance[i * dimension + j] - scaledGain * gain[j]) / forgettingFactor;
+                covariance[i * dimension + j] = value;
+                covariance[j * dimension + i] = value;
+            }
+        }
+
+        numUpdates++;
+    }
+
+    private void reset(int numFeatures) {
+        this.dimension = numFeatures + 1;
+        this.weights = new double[dimension];
+        this.covariance = new double[dimension * dimension];
+        this.gain = new double[dimension];
+        for (int i = 0; i < dimension; i++) {
+            covariance[i * dimension + i] = initialCovariance;
+        }
+        this.numUpdates = 0;
+    }
+
+    @Override
+    public double predict(double[] features) {
+        if (weights == null) {
+            throw new IllegalStateException("Model not trained yet");
+        }
+
+        double prediction = weights[0];
+        int count = Math.min(features.length, dimension - 1);
+        for (int j = 0; j < count; j++) {
+            prediction += weights[j + 1] * features[j];
+        }
+        return prediction;
+    }
+
+    @Override
+    public double[] predict(double[][] features) {
+        double[] predictions = new double[features.length];
+        for (int i = 0; i < features.length; i++) {
+            predictions[i] = predict(features[i]);
+        }
+        return predictions;
+    }
+
+    /**
+     * 已吸收的样本数
+     */
+    public long getNumUpdates() {
+        return numUpdates;
+    }
+
+    @Override
+    public boolean saveModel(String path) {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(path))) {
+            oos.writeDouble(forgettingFactor);
+            oos.writeDouble(initialCovariance);
+            oos.writeLong(numUpdates);
+            oos.writeObject(weights);
+            oos.writeObject(covariance);
+            logger.info("RLS model saved to: {}", path);
+            return true;
+        } catch (IOException e) {
+            logger.error("Error saving model: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean loadModel(String path) {
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(path))) {
+            forgettingFactor = ois.readDouble();
+            initialCovariance = ois.readDouble();
+            numUpdates = ois.readLong();
+            weights = (double[]) ois.readObject();
+            covariance = (double[]) ois.readObject();
+            dimension = weights.length;
+            gain = new double[dimension];
+            logger.info("RLS model loaded from: {}", path);
+            return true;
+        } catch (IOException | ClassNotFoundException e) {
+            logger.error("Error loading model: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        // 预测只读取权重；与update同时调用时不保证一致
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> getParameters() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("forgettingFactor", forgettingFactor);
+        params.put("initialCovariance", initialCovariance);
+        return params;
+    }
+
+    @Override
+    public void setParameters(Map<String, Object> parameters) {
+        if (parameters.containsKey("forgettingFactor")) {
+            this.forgettingFactor = (double) parameters.get("forgettingFactor");
+        }
+        if (parameters.containsKey("initialCovariance")) {
+            this.initialCovariance = (double) parameters.get("initialCovariance");
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.quanttrading.ml.impl;
+
+import com.quanttrading.ml.OnlineLearningAlgorithm;
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.linear.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 闭式解岭回归
+ * 维护正规方程的累加量X'X和X'y，新样本以秩一更新并入，需要预测时再惰性求解。
+ * 求解优先使用Cholesky分解，矩阵病态时依次回退到QR和SVD。截距项不参与正则化。
+ */
+public class RidgeRegressionAlgorithm implements OnlineLearningAlgorithm {
+    private static final Logger logger = LoggerFactory.getLogger(RidgeRegressionAlgorithm.class);
+
+    private double regularization;
+
+    // 第0维为截距项，xtx按行优先存放（只累加上三角）
+    private int dimension;
+    private double[] xtx;
+    private double[] xty;
+    private long numSamples;
+
+    private double[] weights;
+    private boolean dirty;
+
+    public RidgeRegressionAlgorithm() {
+        this(1.0);
+    }
+
+    public RidgeRegressionAlgorithm(double regularization) {
+        this.regularization = regularization;
+    }
+
+    @Override
+    public void train(double[][] features, double[] labels) {
+        if (features.length != labels.length) {
+            throw new IllegalArgumentException("Features and labels must have the same length");
+        }
+        if (features.length == 0) {
+            throw new IllegalArgumentException("No training samples");
+        }
+
+        reset(features[0].length);
+        for (int i = 0; i < features.length; i++) {
+            update(features[i], labels[i]);
+        }
+        solve();
+
+        logger.info("Ridge regression trained with {} samples, {} features", features.length, features[0].length);
+    }
+
+    @Override
+    public void update(double[] features, double label) {
+        if (xtx == null) {
+            reset(features.length);
+        }
+        if (features.length != dimension - 1) {
+            throw new IllegalArgumentException("Expected " + (dimension - 1) + " features but got " + features.length);
+        }
+
+        // 截距行
+        xtx[0] += 1.0;
+        for (int j = 1; j < dimension; j++) {
+            xtx[j] += features[j - 1];
+        }
+        xty[0] += label;
+
+        for (int i = 1; i < dimension; i++) {
+            double xi = features[i - 1];
+            int row = i * dimension;
+            for (int j = i; j < dimension; j++) {
+                xtx[row + j] += xi * features[j - 1];
+            }
+            xty[i] += xi * label;
+        }
+
+        numSamples++;
+        dirty = true;
+    }
+
+    private void reset(int numFeatures) {
+        this.dimension = numFeatures + 1;
+        this.xtx = new double[dimension * dimension];
+        this.xty = new double[dimension];
+        this.weights = null;
+        this.numSamples = 0;
+        this.dirty = false;
+    }
+
+    /**
+     * 根据当前累加量求解权重
+     */
+    private void solve() {
+        double[][] a = new double[dimension][dimension];
+        for (int i = 0; i < dimension; i++) {
+            for (int j = i; j < dimension; j++) {
+                a[i][j] = xtx[i * dimension + j];
+                a[j][i] = a[i][j];
+            }
+            if (i > 0) {
+                a[i][i] += regularization;
+            }
+        }
+
+        RealMatrix matrix = new Array2DRowRealMatrix(a, false);
+        RealVector rhs = new ArrayRealVector(xty);
+        RealVector solution;
+        try {
+            solution = new CholeskyDecomposition(matrix).getSolver().solve(rhs);
+        } catch (MathIllegalArgumentException e) {
+            logger.debug("Cholesky decomposition failed, falling back to QR: {}", e.getMessage());
+            try {
+                solution = new QRDecomposition(matrix).getSolver().solve(rhs);
+            } catch (MathIllegalArgumentException qrFailure) {
+                logger.debug("QR decomposition failed, falling back to SVD: {}", qrFailure.getMessage());
+                solution = new SingularValueDecomposition(matrix).getSolver().solve(rhs);
+            }
+        }
+
+        weights = solution.toArray();
+        dirty = false;
+    }
+
+    private double[] currentWeights() {
+        if (xtx == null) {
+            throw new IllegalStateException("Model not trained yet");
+        }
+        if (dirty || weights == null) {
+            solve();
+        }
+        return weights;
+    }
+
+    @Override
+    public double predict(double[] features) {
+        double[] w = currentWeights();
+        double prediction = w[0];
+        int count = Math.min(features.length, dimension - 1);
+        for (int j = 0; j < count; j++) {
+            prediction += w[j + 1] * features[j];
+        }
+        return prediction;
+    }
+
+    @Override
+    public double[] predict(double[][] features) {
+        double[] predictions = new double[features.length];
+        for (int i = 0; i < features.length; i++) {
+            predictions[i] = predict(features[i]);
+        }
+        return predictions;
+    }
+
+    /**
+     * 当前权重，第0个为截距
+     */
+    public double[] getWeights() {
+        return currentWeights().clone();
+    }
+
+    /**
+     * 已吸收的样本数
+     */
+    public long getNumSamples() {
+        return numSamples;
+    }
+
+    @Override
+    public boolean saveModel(String path) {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(path))) {
+            oos.writeDouble(regularization);
+            oos.writeLong(numSamples);
+            oos.writeObject(xtx);
+            oos.writeObject(xty);
+            logger.info("Ridge regression model saved to: {}", path);
+            return true;
+        } catch (IOException e) {
+            logger.error("Error saving model: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean loadModel(String path) {
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(path))) {
+            regularization = ois.readDouble();
+            numSamples = ois.readLong();
+            xtx = (double[]) ois.readObject();
+            xty = (double[]) ois.readObject();
+            dimension = xty.length;
+            dirty = true;
+            logger.info("Ridge regression model loaded from: {}", path);
+            return true;
+        } catch (IOException | ClassNotFoundException e) {
+            logger.error("Error loading model: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public Map<String, Object> getParameters() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("regularization", regularization);
+        return params;
+    }
+
+    @Override
+    public void setParameters(Map<String, Object> parameters) {
+        if (parameters.containsKey("regularization")) {
+            this.regularization = (double) parameters.get("regularization");
+            this.dirty = true;
+        }
+    }
+}
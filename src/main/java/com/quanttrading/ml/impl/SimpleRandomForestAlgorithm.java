@@ -6,9 +6,13 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.util.*;
+import java.util.stream.IntStream;
 
 /**
  * 简化版随机森林实现
+ * 训练时记录每棵树的bootstrap样本，顺带计算袋外误差和袋外置换特征重要性。
+ * 开启warmStart后再次训练时，在传入的数据上增加warmStartTrees棵树，并按先进先出淘汰最旧的树，保持森林规模不变；
+ * 调用方只应传入上次训练之后的新数据（MachineLearningStrategy.trainModel即如此）。
  */
 public class SimpleRandomForestAlgorithm implements MachineLearningAlgorithm {
     private static final Logger logger = LoggerFactory.getLogger(SimpleRandomForestAlgorithm.class);
@@ -16,9 +20,13 @@ public class SimpleRandomForestAlgorithm implements MachineLearningAlgorithm {
     private List<DecisionTree> trees;
     private int numTrees;
     private int maxDepth;
+    private boolean warmStart;
+    private int warmStartTrees;
+    private int trainedFeatures;
     private Random random;
     private String[] featureNames;
     private Map<String, Double> featureImportance;
+    private double outOfBagError = Double.NaN;
 
     public SimpleRandomForestAlgorithm() {
         this(100, 10);
@@ -28,6 +36,8 @@ public class SimpleRandomForestAlgorithm implements MachineLearningAlgorithm {
     public SimpleRandomForestAlgorithm(int numTrees, int maxDepth) {
         this.numTrees = numTrees;
         this.maxDepth = maxDepth;
+        this.warmStart = false;
+        this.warmStartTrees = 10;
         this.random = new Random(42);
         this.trees = new ArrayList<>();
         this.featureImportance = new HashMap<>();
@@ -43,12 +53,26 @@ public class SimpleRandomForestAlgorithm implements MachineLearningAlgorithm {
             throw new IllegalArgumentException("Features and labels must have the same length");
         }
 
-        trees.clear();
+        // 热启动时保留已有的树，只训练新增的树
+        int numFeatures = features[0].length;
+        boolean incremental = canContinueTraining(numFeatures);
+        int treesToGrow = incremental ? Math.min(warmStartTrees, numTrees) : numTrees;
+        if (!incremental) {
+            trees.clear();
+        }
+
+        List<DecisionTree> grown = new ArrayList<>(treesToGrow);
+        List<BitSet> inBag = new ArrayList<>(treesToGrow);
 
         // 创建多棵决策树
-        for (int i = 0; i < numTrees; i++) {
-            // 创建bootstrap样本
+        for (int i = 0; i < treesToGrow; i++) {
+            // 创建bootstrap样本，并记录袋内样本
             int[] indices = bootstrap(features.length);
+            BitSet bag = new BitSet(features.length);
+            for (int index : indices) {
+                bag.set(index);
+            }
+            inBag.add(bag);
             double[][] bootstrapFeatures = new double[indices.length][];
             double[] bootstrapLabels = new double[indices.length];
 
@@ -60,15 +84,148 @@ public class SimpleRandomForestAlgorithm implements MachineLearningAlgorithm {
             // 创建并训练决策树
             DecisionTree tree = new DecisionTree(maxDepth, random);
             tree.train(bootstrapFeatures, bootstrapLabels);
-            trees.add(tree);
+            grown.add(tree);
+
+            logger.debug("Tree {}/{} trained", i+1, treesToGrow);
+        }
+
+        // 先进先出淘汰最旧的树
+        trees.addAll(grown);
+        int retired = Math.max(0, trees.size() - numTrees);
+        if (retired > 0) {
+            trees.subList(0, retired).clear();
+        }
+        trainedFeatures = numFeatures;
+
+        // 计算袋外误差和特征重要性（热启动时只基于新增的树）
+        computeOutOfBagStatistics(features, labels, grown, inBag);
+
+        if (incremental) {
+            logger.info("Random Forest warm start: {} trees added, {} retired, OOB MSE of new trees: {}",
+                    treesToGrow, retired, outOfBagError);
+        } else {
+            logger.info("Random Forest model trained with {} trees, OOB MSE: {}", numTrees, outOfBagError);
+        }
+    }
+
+    @Override
+    public boolean canContinueTraining(int numFeatures) {
+        return warmStart && !trees.isEmpty() && numFeatures == trainedFeatures;
+    }
+
+    /**
+     * 计算袋外均方误差和袋外置换重要性
+     * 每个特征在独立的随机数流上置换，各特征并行计算
+     */
+    private void computeOutOfBagStatistics(double[][] features, double[] labels,
+                                           List<DecisionTree> grown, List<BitSet> inBag) {
+        int numSamples = features.length;
+        int numFeatures = features[0].length;
+
+        // 每棵树的袋外样本
+        int[][] outOfBag = new int[grown.size()][];
+        for (int t = 0; t < grown.size(); t++) {
+            BitSet bag = inBag.get(t);
+            int[] indices = new int[numSamples - bag.cardinality()];
+            int count = 0;
+            for (int i = bag.nextClearBit(0); i < numSamples; i = bag.nextClearBit(i + 1)) {
+                indices[count++] = i;
+            }
+            outOfBag[t] = indices;
+        }
 
-            logger.debug("Tree {}/{} trained", i+1, numTrees);
+        int[] votes = new int[numSamples];
+        double[] sums = new double[numSamples];
+        for (int t = 0; t < grown.size(); t++) {
+            DecisionTree tree = grown.get(t);
+            for (int i : outOfBag[t]) {
+                sums[i] += tree.predict(features[i]);
+                votes[i]++;
+            }
         }
 
-        // 计算特征重要性
-        calculateFeatureImportance(features[0].length);
+        outOfBagError = meanSquaredError(sums, votes, labels);
+        if (Double.isNaN(outOfBagError)) {
+            // 没有袋外样本时退回到分割次数统计
+            calculateFeatureImportance(numFeatures);
+            return;
+        }
 
-        logger.info("Random Forest model trained with {} trees", numTrees);
+        SplittableRandom root = new SplittableRandom(random.nextLong());
+        SplittableRandom[] streams = new SplittableRandom[numFeatures];
+        for (int f = 0; f < numFeatures; f++) {
+            streams[f] = root.split();
+        }
+
+        double baseline = outOfBagError;
+        double[] increase = new double[numFeatures];
+        IntStream.range(0, numFeatures).parallel().forEach(f ->
+                increase[f] = permutedOutOfBagError(features, labels, grown, outOfBag, votes, f, streams[f]) - baseline);
+
+        featureImportance.clear();
+        double total = 0;
+        for (double value : increase) {
+            total += Math.max(0, value);
+        }
+        if (total <= 0) {
+            calculateFeatureImportance(numFeatures);
+            return;
+        }
+        for (int i = 0; i < numFeatures; i++) {
+            String featureName = (featureNames != null && i < featureNames.length) ?
+                    featureNames[i] : "Feature " + i;
+            featureImportance.put(featureName, Math.max(0, increase[i]) / total);
+        }
+    }
+
+    /**
+     * 置换一个特征列后重新计算袋外均方误差
+     */
+    private double permutedOutOfBagError(double[][] features, double[] labels, List<DecisionTree> grown,
+                                         int[][] outOfBag, int[] votes, int feature, SplittableRandom rng) {
+        int numSamples = features.length;
+        double[] column = new double[numSamples];
+        for (int i = 0; i < numSamples; i++) {
+            column[i] = features[i][feature];
+        }
+        for (int i = numSamples - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            double tmp = column[i];
+            column[i] = column[j];
+            column[j] = tmp;
+        }
+
+        double[] row = new double[features[0].length];
+        double[] sums = new double[numSamples];
+        for (int t = 0; t < grown.size(); t++) {
+            DecisionTree tree = grown.get(t);
+            for (int i : outOfBag[t]) {
+                System.arraycopy(features[i], 0, row, 0, row.length);
+                row[feature] = column[i];
+                sums[i] += tree.predict(row);
+            }
+        }
+        return meanSquaredError(sums, votes, labels);
+    }
+
+    private static double meanSquaredError(double[] sums, int[] votes, double[] labels) {
+        double sumSquaredError = 0;
+        int count = 0;
+        for (int i = 0; i < labels.length; i++) {
+            if (votes[i] > 0) {
+                double error = sums[i] / votes[i] - labels[i];
+                sumSquaredError += error * error;
+                count++;
+            }
+        }
+        return count > 0 ? sumSquaredError / count : Double.NaN;
+    }
+
+    /**
+     * 袋外均方误差，没有袋外样本或模型从文件加载时为NaN
+     */
+    public double getOutOfBagError() {
+        return outOfBagError;
     }
 
     private void calculateFeatureImportance(int numFeatures) {
@@ -134,31 +291,58 @@ public class SimpleRandomForestAlgorithm implements MachineLearningAlgorithm {
     }
 
     @Override
-    public void saveModel(String path) {
+    public boolean saveModel(String path) {
         try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(path))) {
+            oos.writeInt(trainedFeatures);
             oos.writeObject(trees);
             logger.info("Random Forest model saved to: {}", path);
+            return true;
         } catch (IOException e) {
             logger.error("Error saving model: {}", e.getMessage());
+            return false;
         }
     }
 
     @Override
     @SuppressWarnings("unchecked")
-    public void loadModel(String path) {
+    public boolean loadModel(String path) {
         try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(path))) {
+            int features = ois.readInt();
             trees = (List<DecisionTree>) ois.readObject();
+            trainedFeatures = features;
+            outOfBagError = Double.NaN;
             logger.info("Random Forest model loaded from: {}", path);
+            return true;
         } catch (IOException | ClassNotFoundException e) {
             logger.error("Error loading model: {}", e.getMessage());
+            return false;
         }
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        // 训练完成后树只读，预测不修改任何状态
+        return true;
+    }
+
     @Override
     public Map<String, Object> getParameters() {
         Map<String, Object> params = new HashMap<>();
         params.put("numTrees", numTrees);
         params.put("maxDepth", maxDepth);
+        params.put("warmStart", warmStart);
+        params.put("warmStartTrees", warmStartTrees);
+        return params;
+    }
+
+    /**
+     * 热启动设置只影响增量训练，不影响完整训练的结果
+     */
+    @Override
+    public Map<String, Object> getModelParameters() {
+        Map<String, Object> params = getParameters();
+        params.remove("warmStart");
+        params.remove("warmStartTrees");
         return params;
     }
 
@@ -170,6 +354,12 @@ public class SimpleRandomForestAlgorithm implements MachineLearningAlgorithm {
         if (parameters.containsKey("maxDepth")) {
             this.maxDepth = (int) parameters.get("maxDepth");
         }
+        if (parameters.containsKey("warmStart")) {
+            this.warmStart = (boolean) parameters.get("warmStart");
+        }
+        if (parameters.containsKey("warmStartTrees")) {
+            this.warmStartTrees = (int) parameters.get("warmStartTrees");
+        }
     }
 
     @Override
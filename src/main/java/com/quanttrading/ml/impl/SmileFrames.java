@@ -0,0 +1,113 @@
+package com.quanttrading.ml.impl;
+
+import smile.data.DataFrame;
+import smile.data.Tuple;
+import smile.data.type.DataTypes;
+import smile.data.type.StructField;
+import smile.data.type.StructType;
+import smile.data.vector.DoubleVector;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Smile数据转换工具
+ * 直接将特征和标签数组转为Smile的列式DataFrame，不经过Weka的Instances。
+ */
+final class SmileFrames {
+    static final String TARGET = "target";
+
+    private SmileFrames() {
+    }
+
+    /**
+     * 包含全部特征列和目标列的模式，预测时公式仍需绑定目标列
+     */
+    static StructType schema(int numFeatures) {
+        StructField[] fields = new StructField[numFeatures + 1];
+        for (int j = 0; j < numFeatures; j++) {
+            fields[j] = new StructField(columnName(j), DataTypes.DoubleType);
+        }
+        fields[numFeatures] = new StructField(TARGET, DataTypes.DoubleType);
+        return new StructType(fields);
+    }
+
+    static DataFrame trainingFrame(double[][] features, double[] labels) {
+        return frame(features, labels);
+    }
+
+    /**
+     * 预测用的DataFrame，目标列填0
+     */
+    static DataFrame predictionFrame(double[][] features) {
+        return frame(features, new double[features.length]);
+    }
+
+    static Tuple tuple(double[] features, StructType schema) {
+        int numFeatures = schema.length() - 1;
+        double[] values = new double[numFeatures + 1];
+        System.arraycopy(features, 0, values, 0, Math.min(features.length, numFeatures));
+        return Tuple.of(values, schema);
+    }
+
+    /**
+     * 在指定线程数的ForkJoinPool中运行训练，Smile内部的并行流会使用该线程池
+     * @param numThreads 线程数，0表示使用公共ForkJoinPool
+     */
+    static <T> T runInPool(int numThreads, Callable<T> task) {
+        ForkJoinPool pool = numThreads > 0 ? new ForkJoinPool(numThreads) : ForkJoinPool.commonPool();
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Smile training interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Smile training failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            if (pool != ForkJoinPool.commonPool()) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * 将Smile的特征重要性归一化为名称到比例的映射
+     */
+    static Map<String, Double> importance(double[] raw, String[] featureNames) {
+        Map<String, Double> importance = new HashMap<>();
+        double total = 0;
+        for (double value : raw) {
+            total += value;
+        }
+        if (total > 0) {
+            for (int j = 0; j < raw.length; j++) {
+                String name = (featureNames != null && j < featureNames.length) ?
+                        featureNames[j] : "feature" + j;
+                importance.put(name, raw[j] / total);
+            }
+        }
+        return importance;
+    }
+
+    private static DataFrame frame(double[][] features, double[] labels) {
+        int numSamples = features.length;
+        int numFeatures = numSamples > 0 ? features[0].length : 0;
+        DoubleVector[] columns = new DoubleVector[numFeatures + 1];
+        for (int j = 0; j < numFeatures; j++) {
+            double[] column = new double[numSamples];
+            for (int i = 0; i < numSamples; i++) {
+                column[i] = features[i][j];
+            }
+            columns[j] = DoubleVector.of(columnName(j), column);
+        }
+        columns[numFeatures] = DoubleVector.of(TARGET, labels);
+        return DataFrame.of(columns);
+    }
+
+    private static String columnName(int index) {
+        return "f" + index;
+    }
+}
@@ -0,0 +1,55 @@
+package com.quanttrading.ml.impl;
+
+import smile.base.cart.Loss;
+import smile.data.DataFrame;
+import smile.data.formula.Formula;
+import smile.regression.GradientTreeBoost;
+
+import java.util.Map;
+
+/**
+ * 基于Smile的梯度提升回归树（最小二乘损失）
+ */
+public class SmileGradientBoostingAlgorithm extends SmileRegressionAlgorithm<GradientTreeBoost> {
+    private double shrinkage;
+
+    public SmileGradientBoostingAlgorithm() {
+        this(200, 0.05);
+    }
+
+    public SmileGradientBoostingAlgorithm(int numTrees, double shrinkage) {
+        super(GradientTreeBoost.class, "gradient boosting model");
+        this.numTrees = numTrees;
+        this.shrinkage = shrinkage;
+        this.maxDepth = 20;
+        this.maxNodes = 6;
+        this.nodeSize = 5;
+        this.samplingRate = 0.7;
+    }
+
+    @Override
+    protected GradientTreeBoost fit(DataFrame data, int numSamples, int numFeatures) {
+        return GradientTreeBoost.fit(Formula.lhs(SmileFrames.TARGET), data, Loss.ls(),
+                numTrees, maxDepth, maxNodes, nodeSize, shrinkage, samplingRate);
+    }
+
+    @Override
+    protected double[] importance(GradientTreeBoost model) {
+        return model.importance();
+    }
+
+    @Override
+    public Map<String, Object> getParameters() {
+        Map<String, Object> params = super.getParameters();
+        params.put("shrinkage", shrinkage);
+        return params;
+    }
+
+    @Override
+    public void setParameters(Map<String, Object> parameters) {
+        super.setParameters(parameters);
+        if (parameters.containsKey("shrinkage")) {
+            this.shrinkage = (double) parameters.get("shrinkage");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.quanttrading.ml.impl;
+
+import smile.data.DataFrame;
+import smile.data.formula.Formula;
+import smile.regression.RandomForest;
+
+import java.util.Map;
+
+/**
+ * 基于Smile的随机森林回归
+ * Smile按树并行训练，线程数由numThreads控制。
+ */
+public class SmileRandomForestAlgorithm extends SmileRegressionAlgorithm<RandomForest> {
+    private int mtry;
+
+    public SmileRandomForestAlgorithm() {
+        this(100, 20);
+    }
+
+    public SmileRandomForestAlgorithm(int numTrees, int maxDepth) {
+        super(RandomForest.class, "random forest");
+        this.numTrees = numTrees;
+        this.maxDepth = maxDepth;
+        this.maxNodes = 0; // 0表示样本数/5
+        this.nodeSize = 5;
+        this.mtry = 0; // 0表示特征数/3
+        this.samplingRate = 1.0;
+    }
+
+    @Override
+    protected RandomForest fit(DataFrame data, int numSamples, int numFeatures) {
+        int nodes = maxNodes > 0 ? maxNodes : Math.max(2, numSamples / 5);
+        int numSplitFeatures = mtry > 0 ? Math.min(mtry, numFeatures) : Math.max(1, numFeatures / 3);
+        return RandomForest.fit(Formula.lhs(SmileFrames.TARGET), data,
+                numTrees, numSplitFeatures, maxDepth, nodes, nodeSize, samplingRate);
+    }
+
+    @Override
+    protected double[] importance(RandomForest model) {
+        return model.importance();
+    }
+
+    @Override
+    public Map<String, Object> getParameters() {
+        Map<String, Object> params = super.getParameters();
+        params.put("mtry", mtry);
+        return params;
+    }
+
+    @Override
+    public void setParameters(Map<String, Object> parameters) {
+        super.setParameters(parameters);
+        if (parameters.containsKey("mtry")) {
+            this.mtry = (int) parameters.get("mtry");
+        }
+    }
+}
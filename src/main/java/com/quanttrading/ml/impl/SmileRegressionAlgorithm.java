@@ -0,0 +1,173 @@
+package com.quanttrading.ml.impl;
+
+import com.quanttrading.ml.MachineLearningAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import smile.data.DataFrame;
+import smile.data.type.StructType;
+import smile.regression.DataFrameRegression;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Smile树模型回归的公共部分
+ * 负责线程池、模型保存加载、预测和共有参数，子类只实现具体的训练调用。
+ */
+public abstract class SmileRegressionAlgorithm<M extends DataFrameRegression> implements MachineLearningAlgorithm {
+    private static final Logger logger = LoggerFactory.getLogger(SmileRegressionAlgorithm.class);
+
+    private final Class<M> modelType;
+    private final String modelName;
+
+    protected int numTrees;
+    protected int maxDepth;
+    protected int maxNodes;
+    protected int nodeSize;
+    protected double samplingRate;
+    protected int numThreads;
+    private String[] featureNames;
+
+    private M model;
+    private StructType schema;
+
+    protected SmileRegressionAlgorithm(Class<M> modelType, String modelName) {
+        this.modelType = modelType;
+        this.modelName = modelName;
+        this.numThreads = 0; // 0表示使用公共ForkJoinPool
+    }
+
+    public void setFeatureNames(String[] featureNames) {
+        this.featureNames = featureNames;
+    }
+
+    /**
+     * 在训练线程池中调用，数据帧已包含目标列
+     */
+    protected abstract M fit(DataFrame data, int numSamples, int numFeatures);
+
+    protected abstract double[] importance(M model);
+
+    @Override
+    public void train(double[][] features, double[] labels) {
+        if (features.length != labels.length) {
+            throw new IllegalArgumentException("Features and labels must have the same length");
+        }
+        if (features.length == 0) {
+            throw new IllegalArgumentException("No training samples");
+        }
+
+        int numSamples = features.length;
+        int numFeatures = features[0].length;
+        DataFrame data = SmileFrames.trainingFrame(features, labels);
+
+        long startTime = System.currentTimeMillis();
+        model = SmileFrames.runInPool(numThreads, () -> fit(data, numSamples, numFeatures));
+        schema = SmileFrames.schema(numFeatures);
+
+        logger.info("Smile {} trained with {} trees in {} ms",
+                modelName, numTrees, System.currentTimeMillis() - startTime);
+    }
+
+    @Override
+    public double predict(double[] features) {
+        if (model == null) {
+            throw new IllegalStateException("Model not trained yet");
+        }
+        return model.predict(SmileFrames.tuple(features, schema));
+    }
+
+    @Override
+    public double[] predict(double[][] features) {
+        if (model == null) {
+            throw new IllegalStateException("Model not trained yet");
+        }
+        return model.predict(SmileFrames.predictionFrame(features));
+    }
+
+    @Override
+    public boolean saveModel(String path) {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(path))) {
+            oos.writeInt(schema.length() - 1);
+            oos.writeObject(model);
+            logger.info("Smile {} saved to: {}", modelName, path);
+            return true;
+        } catch (IOException e) {
+            logger.error("Error saving model: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean loadModel(String path) {
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(path))) {
+            StructType loadedSchema = SmileFrames.schema(ois.readInt());
+            model = modelType.cast(ois.readObject());
+            schema = loadedSchema;
+            logger.info("Smile {} loaded from: {}", modelName, path);
+            return true;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            logger.error("Error loading model: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        // Smile模型训练后不可变，每次预测创建自己的数据帧
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> getParameters() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("numTrees", numTrees);
+        params.put("maxDepth", maxDepth);
+        params.put("maxNodes", maxNodes);
+        params.put("nodeSize", nodeSize);
+        params.put("samplingRate", samplingRate);
+        params.put("numThreads", numThreads);
+        return params;
+    }
+
+    /**
+     * 线程数不影响训练结果
+     */
+    @Override
+    public Map<String, Object> getModelParameters() {
+        Map<String, Object> params = getParameters();
+        params.remove("numThreads");
+        return params;
+    }
+
+    @Override
+    public void setParameters(Map<String, Object> parameters) {
+        if (parameters.containsKey("numTrees")) {
+            this.numTrees = (int) parameters.get("numTrees");
+        }
+        if (parameters.containsKey("maxDepth")) {
+            this.maxDepth = (int) parameters.get("maxDepth");
+        }
+        if (parameters.containsKey("maxNodes")) {
+            this.maxNodes = (int) parameters.get("maxNodes");
+        }
+        if (parameters.containsKey("nodeSize")) {
+            this.nodeSize = (int) parameters.get("nodeSize");
+        }
+        if (parameters.containsKey("samplingRate")) {
+            this.samplingRate = (double) parameters.get("samplingRate");
+        }
+        if (parameters.containsKey("numThreads")) {
+            this.numThreads = (int) parameters.get("numThreads");
+        }
+    }
+
+    @Override
+    public Map<String, Double> getFeatureImportance() {
+        if (model == null) {
+            return new HashMap<>();
+        }
+        return SmileFrames.importance(importance(model), featureNames);
+    }
+}
@@ -1,18 +1,23 @@
 package com.quanttrading.ml.impl;
 
 import com.quanttrading.ml.MachineLearningAlgorithm;
+import weka.classifiers.Classifier;
 import weka.classifiers.trees.RandomForest;
 import weka.core.Attribute;
 import weka.core.DenseInstance;
 import weka.core.Instances;
+import weka.core.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 基于Weka的随机森林算法实现
+ * 开启warmStart后再次训练时，在传入的数据上构建warmStartTrees棵树，与已有森林中较新的树合并，
+ * 按先进先出淘汰最旧的树，保持森林规模不变；调用方只应传入上次训练之后的新数据。
  */
 public class WekaRandomForestAlgorithm implements MachineLearningAlgorithm {
     private static final Logger logger = LoggerFactory.getLogger(WekaRandomForestAlgorithm.class);
@@ -20,9 +25,15 @@ public class WekaRandomForestAlgorithm implements MachineLearningAlgorithm {
     private RandomForest model;
     private int numTrees;
     private int maxDepth;
+    private int numExecutionSlots;
+    private int bagSizePercent;
+    private boolean logTrainingDiagnostics;
+    private boolean warmStart;
+    private int warmStartTrees;
     private String[] featureNames;
     private Instances dataHeader;
     private Map<String, Double> featureImportance;
+    private final ThreadLocal<ScratchInstance> scratchInstances = new ThreadLocal<>();
 
     public WekaRandomForestAlgorithm() {
         this(100, 0); // 0表示无限制深度
@@ -31,7 +42,12 @@ public class WekaRandomForestAlgorithm implements MachineLearningAlgorithm {
     public WekaRandomForestAlgorithm(int numTrees, int maxDepth) {
         this.numTrees = numTrees;
         this.maxDepth = maxDepth;
-        this.model = new RandomForest();
+        this.numExecutionSlots = 1; // 1表示单线程，0表示自动检测CPU核数
+        this.bagSizePercent = 100;
+        this.logTrainingDiagnostics = false;
+        this.warmStart = false;
+        this.warmStartTrees = 10;
+        this.model = new WarmStartRandomForest();
         this.featureImportance = new HashMap<>();
     }
 
@@ -102,40 +118,46 @@ public class WekaRandomForestAlgorithm implements MachineLearningAlgorithm {
                 trainingData.add(new DenseInstance(1.0, values));
             }
 
+            // 热启动时保留已有森林，只在本次传入的数据上构建新增的树
+            boolean incremental = canContinueTraining(features[0].length) && dataHeader.equalHeaders(trainingData);
+            int treesToGrow = incremental ? Math.min(warmStartTrees, numTrees) : numTrees;
+
             // 保存数据头信息，用于预测
             this.dataHeader = new Instances(trainingData, 0);
 
             // 配置随机森林
-            try {
-                // 设置选项
-                String options = "-I " + numTrees;
-                if (maxDepth > 0) {
-                    options += " -depth " + maxDepth;
-                }
-                model.setOptions(weka.core.Utils.splitOptions(options));
-            } catch (Exception e) {
-                logger.warn("Could not set all RandomForest options: {}", e.getMessage());
-            }
+            WarmStartRandomForest forest = new WarmStartRandomForest();
+            configure(forest, treesToGrow);
 
             // 训练模型
-            logger.info("Building Weka RandomForest with {} trees...", numTrees);
-            model.buildClassifier(trainingData);
-
-            // 测试模型
-            logger.info("Testing model on training data...");
-            double sumError = 0;
-            for (int i = 0; i < Math.min(10, trainingData.numInstances()); i++) {
-                double actual = trainingData.instance(i).classValue();
-                double predicted = model.classifyInstance(trainingData.instance(i));
-                logger.info("Sample {}: Actual={}, Predicted={}, Error={}",
-                        i, actual, predicted, Math.abs(actual - predicted));
-                sumError += Math.abs(actual - predicted);
+            logger.info("Building Weka RandomForest with {} trees on {} execution slots...",
+                    treesToGrow, numExecutionSlots == 0 ? "auto" : numExecutionSlots);
+            long startTime = System.nanoTime();
+            forest.buildClassifier(trainingData);
+            logger.info("Weka RandomForest built in {} ms, OOB MAE: {}",
+                    (System.nanoTime() - startTime) / 1_000_000, forest.measureOutOfBagError());
+
+            if (incremental) {
+                // 先进先出：保留已有森林中最新的树，与新树合并
+                Classifier[] previous = ((WarmStartRandomForest) model).getClassifiers();
+                Classifier[] grown = forest.getClassifiers();
+                int kept = Math.min(previous.length, numTrees - grown.length);
+                Classifier[] merged = new Classifier[kept + grown.length];
+                System.arraycopy(previous, previous.length - kept, merged, 0, kept);
+                System.arraycopy(grown, 0, merged, kept, grown.length);
+                forest.setClassifiers(merged);
+                logger.info("Weka RandomForest warm start: {} trees added, {} retired",
+                        grown.length, previous.length - kept);
+            }
+            model = forest;
+
+            // 测试模型（默认关闭）
+            if (logTrainingDiagnostics) {
+                logTrainingSamples(trainingData);
             }
-            double avgError = sumError / Math.min(10, trainingData.numInstances());
-            logger.info("Average error on training samples: {}", avgError);
 
-            // 生成简单的特征重要性
-            generateSimpleFeatureImportance(features[0].length);
+            // 计算特征重要性
+            computeFeatureImportance(features[0].length);
 
             logger.info("Weka RandomForest model training completed");
         } catch (Exception e) {
@@ -143,30 +165,83 @@ public class WekaRandomForestAlgorithm implements MachineLearningAlgorithm {
         }
     }
 
-    private void generateSimpleFeatureImportance(int numFeatures) {
+    @Override
+    public boolean canContinueTraining(int numFeatures) {
+        return warmStart && model instanceof WarmStartRandomForest
+                && ((WarmStartRandomForest) model).getClassifiers() != null
+                && dataHeader != null && dataHeader.numAttributes() == numFeatures + 1;
+    }
+
+    private void configure(RandomForest forest, int iterations) {
+        try {
+            // 设置选项
+            String options = "-I " + iterations
+                    + " -num-slots " + numExecutionSlots
+                    + " -P " + bagSizePercent;
+            if (maxDepth > 0) {
+                options += " -depth " + maxDepth;
+            }
+            forest.setOptions(Utils.splitOptions(options));
+        } catch (Exception e) {
+            logger.warn("Could not set all RandomForest options: {}", e.getMessage());
+        }
+
+        // 训练时顺带计算袋外误差和不纯度下降重要性
+        forest.setCalcOutOfBag(true);
+        forest.setComputeAttributeImportance(true);
+    }
+
+    private void logTrainingSamples(Instances trainingData) throws Exception {
+        logger.info("Testing model on training data...");
+        int numSamples = Math.min(10, trainingData.numInstances());
+        double sumError = 0;
+        for (int i = 0; i < numSamples; i++) {
+            double actual = trainingData.instance(i).classValue();
+            double predicted = model.classifyInstance(trainingData.instance(i));
+            logger.info("Sample {}: Actual={}, Predicted={}, Error={}",
+                    i, actual, predicted, Math.abs(actual - predicted));
+            sumError += Math.abs(actual - predicted);
+        }
+        logger.info("Average error on training samples: {}", sumError / numSamples);
+    }
+
+    /**
+     * 使用训练时记录的平均不纯度下降作为特征重要性
+     */
+    private void computeFeatureImportance(int numFeatures) {
         featureImportance.clear();
 
-        // 由于无法直接获取特征重要性，我们使用一个简单的启发式方法
-        // 在实际应用中，您可能需要实现更复杂的特征重要性计算
-        Random random = new Random(42); // 使用固定种子以获得一致的结果
+        double[] impurityDecrease;
+        try {
+            impurityDecrease = model.computeAverageImpurityDecreasePerAttribute(null);
+        } catch (Exception e) {
+            logger.warn("Could not compute attribute importance: {}", e.getMessage());
+            return;
+        }
 
-        double[] importanceValues = new double[numFeatures];
         double sum = 0;
-
-        // 生成随机重要性值
         for (int i = 0; i < numFeatures; i++) {
-            importanceValues[i] = 0.1 + 0.9 * random.nextDouble(); // 确保所有特征至少有一些重要性
-            sum += importanceValues[i];
+            sum += Math.max(0, impurityDecrease[i]);
+        }
+        if (sum <= 0) {
+            return;
         }
 
-        // 归一化并存储
         for (int i = 0; i < numFeatures; i++) {
             String name = (featureNames != null && i < featureNames.length) ?
                     featureNames[i] : "feature" + i;
-            featureImportance.put(name, importanceValues[i] / sum);
+            featureImportance.put(name, Math.max(0, impurityDecrease[i]) / sum);
         }
+    }
 
-        logger.info("Simple feature importance generated");
+    /**
+     * 袋外平均绝对误差（Weka对数值型目标的袋外误差定义），模型未训练时为NaN
+     */
+    public double getOutOfBagError() {
+        if (dataHeader == null || !model.getCalcOutOfBag()) {
+            return Double.NaN;
+        }
+        return model.measureOutOfBagError();
     }
 
     @Override
@@ -177,32 +252,11 @@ public class WekaRandomForestAlgorithm implements MachineLearningAlgorithm {
                 return 0.0;
             }
 
-            // 创建实例
-            DenseInstance instance = new DenseInstance(dataHeader.numAttributes());
-            instance.setDataset(dataHeader);
-
-            // 设置特征值
-            for (int i = 0; i < features.length && i < dataHeader.numAttributes() - 1; i++) {
-                instance.setValue(i, features[i]);
-            }
-
-            // 预测
-            double prediction = model.classifyInstance(instance);
-            logger.debug("Raw prediction: {}", prediction);
+            // 复用当前线程的预测实例，避免每次预测都创建新的DenseInstance
+            ScratchInstance instance = scratchInstance();
+            instance.load(features);
 
-            // 如果预测值接近0，返回基于特征的值
-            if (Math.abs(prediction) < 0.0001) {
-                // 使用第一个特征（通常是当前价格）作为预测基础
-                double baseValue = features[0];
-                // 添加一些随机变化，使预测看起来更有意义
-                double randomFactor = 1.0 + (new Random().nextDouble() - 0.5) * 0.05; // ±2.5%
-                double adjustedPrediction = baseValue * randomFactor;
-
-                logger.warn("Prediction near zero ({}). Using adjusted value: {}", prediction, adjustedPrediction);
-                return adjustedPrediction;
-            }
-
-            return prediction;
+            return adjustNearZero(model.classifyInstance(instance), features[0]);
         } catch (Exception e) {
             logger.error("Error predicting with Weka model: {}", e.getMessage());
             // 出错时返回一个非零值
@@ -212,17 +266,89 @@ public class WekaRandomForestAlgorithm implements MachineLearningAlgorithm {
 
     @Override
     public double[] predict(double[][] features) {
-        double[] predictions = new double[features.length];
+        if (dataHeader == null) {
+            logger.error("Model not trained yet (dataHeader is null)");
+            return new double[features.length];
+        }
 
-        for (int i = 0; i < features.length; i++) {
-            predictions[i] = predict(features[i]);
+        return predict(createInstances(features));
+    }
+
+    /**
+     * 批量预测整个数据块，通过distributionsForInstances一次性完成所有树的计算
+     * @param instances 与训练数据结构一致的数据集
+     * @return 预测结果数组
+     */
+    public double[] predict(Instances instances) {
+        double[] predictions = new double[instances.numInstances()];
+        if (dataHeader == null) {
+            logger.error("Model not trained yet (dataHeader is null)");
+            return predictions;
+        }
+
+        try {
+            double[][] distributions = model.distributionsForInstances(instances);
+            for (int i = 0; i < distributions.length; i++) {
+                predictions[i] = adjustNearZero(distributions[i][0], instances.instance(i).value(0));
+            }
+        } catch (Exception e) {
+            logger.error("Error batch predicting with Weka model: {}", e.getMessage());
+            for (int i = 0; i < predictions.length; i++) {
+                predictions[i] = instances.instance(i).value(0);
+            }
         }
 
         return predictions;
     }
 
+    /**
+     * 按训练数据头创建批量预测用的数据集
+     * @param features 多个样本的特征
+     * @return 可直接传给{@link #predict(Instances)}的数据集
+     */
+    public Instances createInstances(double[][] features) {
+        if (dataHeader == null) {
+            throw new IllegalStateException("Model not trained yet (dataHeader is null)");
+        }
+
+        int numAttributes = dataHeader.numAttributes();
+        Instances instances = new Instances(dataHeader, features.length);
+        for (double[] row : features) {
+            double[] values = new double[numAttributes];
+            System.arraycopy(row, 0, values, 0, Math.min(row.length, numAttributes - 1));
+            values[numAttributes - 1] = Utils.missingValue();
+            instances.add(new DenseInstance(1.0, values));
+        }
+        return instances;
+    }
+
+    /**
+     * 获取绑定到当前数据头的线程本地预测实例
+     */
+    private ScratchInstance scratchInstance() {
+        ScratchInstance instance = scratchInstances.get();
+        if (instance == null || instance.dataset() != dataHeader) {
+            instance = new ScratchInstance(dataHeader);
+            scratchInstances.set(instance);
+        }
+        return instance;
+    }
+
+    private double adjustNearZero(double prediction, double baseValue) {
+        // 如果预测值接近0，返回基于特征的值
+        if (Math.abs(prediction) < 0.0001) {
+            // 使用第一个特征（通常是当前价格）作为预测基础，并添加±2.5%的随机变化
+            double randomFactor = 1.0 + (ThreadLocalRandom.current().nextDouble() - 0.5) * 0.05;
+            double adjustedPrediction = baseValue * randomFactor;
+
+            logger.warn("Prediction near zero ({}). Using adjusted value: {}", prediction, adjustedPrediction);
+            return adjustedPrediction;
+        }
+        return prediction;
+    }
+
     @Override
-    public void saveModel(String path) {
+    public boolean saveModel(String path) {
         try {
             // 确保目录存在
             File file = new File(path);
@@ -237,13 +363,15 @@ public class WekaRandomForestAlgorithm implements MachineLearningAlgorithm {
             weka.core.SerializationHelper.write(path + ".header", dataHeader);
 
             logger.info("Weka RandomForest model saved to: {}", path);
+            return true;
         } catch (Exception e) {
             logger.error("Error saving model: {}", e.getMessage());
+            return false;
         }
     }
 
     @Override
-    public void loadModel(String path) {
+    public boolean loadModel(String path) {
         try {
             // 加载模型
             model = (RandomForest) weka.core.SerializationHelper.read(path);
@@ -252,8 +380,10 @@ public class WekaRandomForestAlgorithm implements MachineLearningAlgorithm {
             dataHeader = (Instances) weka.core.SerializationHelper.read(path + ".header");
 
             logger.info("Weka RandomForest model loaded from: {}", path);
+            return true;
         } catch (Exception e) {
             logger.error("Error loading model: {}", e.getMessage());
+            return false;
         }
     }
 
@@ -262,6 +392,24 @@ public class WekaRandomForestAlgorithm implements MachineLearningAlgorithm {
         Map<String, Object> params = new HashMap<>();
         params.put("numTrees", numTrees);
         params.put("maxDepth", maxDepth);
+        params.put("numExecutionSlots", numExecutionSlots);
+        params.put("bagSizePercent", bagSizePercent);
+        params.put("logTrainingDiagnostics", logTrainingDiagnostics);
+        params.put("warmStart", warmStart);
+        params.put("warmStartTrees", warmStartTrees);
+        return params;
+    }
+
+    /**
+     * 并行度、诊断日志和热启动设置不影响完整训练的结果
+     */
+    @Override
+    public Map<String, Object> getModelParameters() {
+        Map<String, Object> params = getParameters();
+        params.remove("numExecutionSlots");
+        params.remove("logTrainingDiagnostics");
+        params.remove("warmStart");
+        params.remove("warmStartTrees");
         return params;
     }
 
@@ -273,10 +421,63 @@ public class WekaRandomForestAlgorithm implements MachineLearningAlgorithm {
         if (parameters.containsKey("maxDepth")) {
             this.maxDepth = (int) parameters.get("maxDepth");
         }
+        if (parameters.containsKey("numExecutionSlots")) {
+            this.numExecutionSlots = (int) parameters.get("numExecutionSlots");
+        }
+        if (parameters.containsKey("bagSizePercent")) {
+            this.bagSizePercent = (int) parameters.get("bagSizePercent");
+        }
+        if (parameters.containsKey("logTrainingDiagnostics")) {
+            this.logTrainingDiagnostics = (boolean) parameters.get("logTrainingDiagnostics");
+        }
+        if (parameters.containsKey("warmStart")) {
+            this.warmStart = (boolean) parameters.get("warmStart");
+        }
+        if (parameters.containsKey("warmStartTrees")) {
+            this.warmStartTrees = (int) parameters.get("warmStartTrees");
+        }
     }
 
     @Override
     public Map<String, Double> getFeatureImportance() {
         return new HashMap<>(featureImportance);
     }
-}
\ No newline at end of file
+
+    /**
+     * 可以替换成员树的随机森林，成员数组长度始终与迭代次数一致
+     */
+    private static class WarmStartRandomForest extends RandomForest {
+        private static final long serialVersionUID = 1L;
+
+        Classifier[] getClassifiers() {
+            return m_Classifiers;
+        }
+
+        void setClassifiers(Classifier[] classifiers) {
+            m_Classifiers = classifiers;
+            m_NumIterations = classifiers.length;
+        }
+    }
+
+    /**
+     * 可复用的预测实例，直接写入属性数组，避免setValue每次复制整个数组
+     */
+    private static class ScratchInstance extends DenseInstance {
+        private static final long serialVersionUID = 1L;
+
+        ScratchInstance(Instances header) {
+            super(header.numAttributes());
+            setDataset(header);
+        }
+
+        /**
+         * 写入特征值，多余的特征被忽略，不足的属性和类别属性置为缺失值，不残留上一次预测的数据
+         */
+        void load(double[] features) {
+            int numFeatures = m_AttValues.length - 1;
+            int copied = Math.min(features.length, numFeatures);
+            System.arraycopy(features, 0, m_AttValues, 0, copied);
+            Arrays.fill(m_AttValues, copied, m_AttValues.length, Utils.missingValue());
+        }
+    }
+}
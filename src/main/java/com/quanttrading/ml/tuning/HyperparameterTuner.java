@@ -0,0 +1,262 @@
+package com.quanttrading.ml.tuning;
+
+import com.quanttrading.ml.MachineLearningAlgorithm;
+import com.quanttrading.ml.factory.MLAlgorithmFactory;
+import com.quanttrading.strategy.impl.FeatureMatrixBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 超参数搜索
+ * 在网格或随机抽样的候选上做时间序列交叉验证，所有(候选, 折)任务提交到固定大小的线程池并发执行。
+ * 相同回看窗口的候选共享同一份预先构建的特征矩阵；不同回看窗口的候选使用相同的样本行和折划分，
+ * 保证均方误差可以比较。
+ * 注意算法自身的并行度（如num-slots、numThreads）会与线程池叠加。
+ */
+public class HyperparameterTuner {
+    private static final Logger logger = LoggerFactory.getLogger(HyperparameterTuner.class);
+
+    /**
+     * 由调参器处理的策略参数，决定特征矩阵，不传给算法
+     */
+    public static final String LOOKBACK_WINDOW = "lookbackWindow";
+
+    private final String algorithmType;
+    private final TimeSeriesCrossValidator validator;
+    private final int numThreads;
+    private final Map<String, Object> baseParameters;
+    private final Map<String, List<Object>> searchSpace;
+
+    /**
+     * @param algorithmType 算法类型，与{@link MLAlgorithmFactory}一致
+     * @param validator 交叉验证划分
+     * @param numThreads 线程池大小，0表示CPU核数
+     */
+    public HyperparameterTuner(String algorithmType, TimeSeriesCrossValidator validator, int numThreads) {
+        this.algorithmType = algorithmType;
+        this.validator = validator;
+        this.numThreads = numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors();
+        this.baseParameters = new HashMap<>();
+        this.searchSpace = new LinkedHashMap<>();
+    }
+
+    /**
+     * 设置所有候选共用的算法参数，候选中的同名参数会覆盖它们
+     */
+    public void setBaseParameters(Map<String, Object> parameters) {
+        baseParameters.clear();
+        baseParameters.putAll(parameters);
+    }
+
+    /**
+     * 添加一个搜索维度
+     * @param name 参数名（算法参数名或{@link #LOOKBACK_WINDOW}）
+     * @param values 候选值，类型需与算法setParameters的期望一致
+     */
+    public void addParameter(String name, List<Object> values) {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("No values for parameter " + name);
+        }
+        searchSpace.put(name, new ArrayList<>(values));
+    }
+
+    /**
+     * 网格搜索的全部候选（笛卡尔积）
+     */
+    public List<Map<String, Object>> gridCandidates() {
+        List<Map<String, Object>> candidates = new ArrayList<>();
+        candidates.add(new HashMap<>());
+        for (Map.Entry<String, List<Object>> dimension : searchSpace.entrySet()) {
+            List<Map<String, Object>> expanded = new ArrayList<>(candidates.size() * dimension.getValue().size());
+            for (Map<String, Object> candidate : candidates) {
+                for (Object value : dimension.getValue()) {
+                    Map<String, Object> next = new HashMap<>(candidate);
+                    next.put(dimension.getKey(), value);
+                    expanded.add(next);
+                }
+            }
+            candidates = expanded;
+        }
+        return candidates;
+    }
+
+    /**
+     * 随机搜索：从网格中不重复地抽取候选
+     * @param numCandidates 候选数量
+     * @param seed 随机种子
+     */
+    public List<Map<String, Object>> randomCandidates(int numCandidates, long seed) {
+        List<Map<String, Object>> grid = gridCandidates();
+        Collections.shuffle(grid, new Random(seed));
+        return new ArrayList<>(grid.subList(0, Math.min(numCandidates, grid.size())));
+    }
+
+    /**
+     * 评估所有候选
+     * @param prices 价格序列，特征和标签的构造方式与MachineLearningStrategy训练时一致
+     * @param candidates 候选超参数
+     * @param defaultLookbackWindow 候选未指定回看窗口时使用的值
+     * @return 按平均均方误差升序排列的结果
+     * @throws IllegalStateException 任一候选训练或预测失败时
+     */
+    public List<TuningResult> tune(double[] prices, List<Map<String, Object>> candidates, int defaultLookbackWindow) {
+        checkParameterTypes(candidates);
+
+        // 所有回看窗口只使用最长窗口也能构建的样本行，折划分相同
+        int maxLookback = 0;
+        for (Map<String, Object> candidate : candidates) {
+            maxLookback = Math.max(maxLookback, lookbackOf(candidate, defaultLookbackWindow));
+        }
+        int numSamples = new FeatureMatrixBuilder(maxLookback).getNumSamples(prices.length);
+
+        // 清洗间隔至少覆盖最长的回看窗口，否则测试样本的特征会与训练样本重叠
+        TimeSeriesCrossValidator splitter = validator;
+        if (validator.getPurgeGap() < maxLookback) {
+            logger.info("Raising purge gap from {} to the longest lookback window {}", validator.getPurgeGap(), maxLookback);
+            splitter = new TimeSeriesCrossValidator(validator.getMode(), validator.getNumFolds(), maxLookback);
+        }
+        List<TimeSeriesCrossValidator.Fold> folds = splitter.split(numSamples);
+
+        // 每个回看窗口只构建一次特征矩阵
+        Map<Integer, Dataset> datasets = new HashMap<>();
+        for (Map<String, Object> candidate : candidates) {
+            int lookback = lookbackOf(candidate, defaultLookbackWindow);
+            if (!datasets.containsKey(lookback)) {
+                datasets.put(lookback, new Dataset(prices, lookback, numSamples));
+            }
+        }
+
+        int numFolds = validator.getNumFolds();
+        logger.info("Tuning {} with {} candidates x {} folds on {} threads",
+                algorithmType, candidates.size(), numFolds, numThreads);
+        long startTime = System.currentTimeMillis();
+
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+        List<TuningResult> results = new ArrayList<>(candidates.size());
+        try {
+            List<List<Future<Double>>> futures = new ArrayList<>(candidates.size());
+            for (Map<String, Object> candidate : candidates) {
+                Dataset dataset = datasets.get(lookbackOf(candidate, defaultLookbackWindow));
+                Map<String, Object> algorithmParameters = new HashMap<>(baseParameters);
+                algorithmParameters.putAll(candidate);
+                algorithmParameters.remove(LOOKBACK_WINDOW);
+
+                List<Future<Double>> candidateFutures = new ArrayList<>(numFolds);
+                for (TimeSeriesCrossValidator.Fold fold : folds) {
+                    candidateFutures.add(pool.submit(() -> evaluateFold(algorithmParameters, dataset, fold)));
+                }
+                futures.add(candidateFutures);
+            }
+
+            for (int c = 0; c < candidates.size(); c++) {
+                List<Future<Double>> candidateFutures = futures.get(c);
+                double[] scores = new double[candidateFutures.size()];
+                for (int k = 0; k < scores.length; k++) {
+                    scores[k] = scoreOf(candidates.get(c), candidateFutures.get(k));
+                }
+                Map<String, Object> parameters = new HashMap<>(candidates.get(c));
+                parameters.putIfAbsent(LOOKBACK_WINDOW, defaultLookbackWindow);
+                results.add(new TuningResult(parameters, scores));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        results.sort(Comparator.comparingDouble(TuningResult::getMeanScore));
+        logger.info("Tuning finished in {} ms, best: {}", System.currentTimeMillis() - startTime,
+                results.isEmpty() ? "none" : results.get(0));
+        return results;
+    }
+
+    private double evaluateFold(Map<String, Object> parameters, Dataset dataset, TimeSeriesCrossValidator.Fold fold) {
+        // 只复制行引用，不复制特征数据
+        double[][] trainFeatures = new double[fold.numTrain()][];
+        double[] trainLabels = new double[fold.numTrain()];
+        for (int i = 0; i < trainFeatures.length; i++) {
+            int row = fold.trainIndex(i);
+            trainFeatures[i] = dataset.features[row];
+            trainLabels[i] = dataset.labels[row];
+        }
+
+        MachineLearningAlgorithm algorithm = MLAlgorithmFactory.createAlgorithm(algorithmType, parameters);
+        algorithm.train(trainFeatures, trainLabels);
+
+        // 序列模型的每个预测对应窗口的最后一行，测试块连续，前面补上测试块之前的行作为窗口上下文
+        int sequenceLength = algorithm.getSequenceLength();
+        int firstTest = fold.testIndex(0);
+        int context = Math.min(sequenceLength - 1, firstTest);
+        int offset = sequenceLength - 1 - context;
+        if (fold.numTest() <= offset) {
+            throw new IllegalArgumentException("Test fold of " + fold.numTest()
+                    + " samples is shorter than the sequence length " + sequenceLength);
+        }
+        double[][] testFeatures = new double[context + fold.numTest()][];
+        for (int i = 0; i < testFeatures.length; i++) {
+            testFeatures[i] = dataset.features[firstTest - context + i];
+        }
+        double[] predictions = algorithm.predict(testFeatures);
+        if (predictions.length != testFeatures.length - sequenceLength + 1) {
+            throw new IllegalStateException("Algorithm " + algorithmType + " returned " + predictions.length
+                    + " predictions for " + testFeatures.length + " rows with sequence length " + sequenceLength);
+        }
+
+        double sum = 0;
+        for (int i = 0; i < predictions.length; i++) {
+            double error = predictions[i] - dataset.labels[fold.testIndex(i + offset)];
+            sum += error * error;
+        }
+        return sum / predictions.length;
+    }
+
+    private double scoreOf(Map<String, Object> candidate, Future<Double> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hyperparameter tuning interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Candidate " + candidate + " failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * 候选值的类型必须与基础参数中的同名参数一致，否则算法setParameters中的强制转换会失败
+     */
+    private void checkParameterTypes(List<Map<String, Object>> candidates) {
+        for (Map<String, Object> candidate : candidates) {
+            for (Map.Entry<String, Object> entry : candidate.entrySet()) {
+                Object base = baseParameters.get(entry.getKey());
+                if (base != null && entry.getValue() != null && base.getClass() != entry.getValue().getClass()) {
+                    throw new IllegalArgumentException("Parameter " + entry.getKey() + " expects "
+                            + base.getClass().getSimpleName() + " but candidate value " + entry.getValue()
+                            + " is " + entry.getValue().getClass().getSimpleName());
+                }
+            }
+        }
+    }
+
+    private static int lookbackOf(Map<String, Object> candidate, int defaultLookbackWindow) {
+        Object value = candidate.get(LOOKBACK_WINDOW);
+        return value != null ? ((Number) value).intValue() : defaultLookbackWindow;
+    }
+
+    /**
+     * 某个回看窗口下的特征矩阵，只保留前numSamples行
+     */
+    private static class Dataset {
+        final double[][] features;
+        final double[] labels;
+
+        Dataset(double[] prices, int lookbackWindow, int numSamples) {
+            FeatureMatrixBuilder builder = new FeatureMatrixBuilder(lookbackWindow);
+            this.features = builder.toRows(builder.build(prices), numSamples);
+            this.labels = Arrays.copyOf(prices, numSamples);
+        }
+    }
+}
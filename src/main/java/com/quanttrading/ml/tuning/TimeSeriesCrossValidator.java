@@ -0,0 +1,139 @@
+package com.quanttrading.ml.tuning;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 时间序列交叉验证的折划分
+ * 样本按时间顺序排列。扩展窗口模式下每折用测试块之前的全部样本训练；
+ * 清洗k折模式下用测试块以外的样本训练。两种模式都会在测试块两侧去掉purgeGap个样本，
+ * 避免回看窗口重叠的特征把测试信息泄漏到训练集中。
+ */
+public class TimeSeriesCrossValidator {
+
+    public enum Mode {
+        EXPANDING_WINDOW,
+        PURGED_KFOLD
+    }
+
+    private final Mode mode;
+    private final int numFolds;
+    private final int purgeGap;
+
+    public TimeSeriesCrossValidator(Mode mode, int numFolds, int purgeGap) {
+        if (numFolds < 2) {
+            throw new IllegalArgumentException("Number of folds must be at least 2");
+        }
+        if (purgeGap < 0) {
+            throw new IllegalArgumentException("Purge gap must not be negative");
+        }
+        this.mode = mode;
+        this.numFolds = numFolds;
+        this.purgeGap = purgeGap;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getNumFolds() {
+        return numFolds;
+    }
+
+    public int getPurgeGap() {
+        return purgeGap;
+    }
+
+    /**
+     * 划分样本
+     * @param numSamples 样本数
+     * @return 各折的训练和测试索引
+     */
+    public List<Fold> split(int numSamples) {
+        List<Fold> folds = new ArrayList<>(numFolds);
+        if (mode == Mode.EXPANDING_WINDOW) {
+            int blockSize = numSamples / (numFolds + 1);
+            if (blockSize < 1) {
+                throw new IllegalArgumentException("Not enough samples (" + numSamples + ") for " + numFolds + " folds");
+            }
+            for (int k = 0; k < numFolds; k++) {
+                int testStart = (k + 1) * blockSize;
+                int testEnd = k == numFolds - 1 ? numSamples : testStart + blockSize;
+                int trainEnd = testStart - purgeGap;
+                if (trainEnd < 1) {
+                    throw new IllegalArgumentException("Purge gap " + purgeGap + " leaves no training samples in fold " + k);
+                }
+                folds.add(new Fold(range(0, trainEnd), range(testStart, testEnd)));
+            }
+        } else {
+            int blockSize = numSamples / numFolds;
+            if (blockSize < 1) {
+                throw new IllegalArgumentException("Not enough samples (" + numSamples + ") for " + numFolds + " folds");
+            }
+            for (int k = 0; k < numFolds; k++) {
+                int testStart = k * blockSize;
+                int testEnd = k == numFolds - 1 ? numSamples : testStart + blockSize;
+                int before = Math.max(0, testStart - purgeGap);
+                int after = Math.min(numSamples, testEnd + purgeGap);
+
+                int[] train = new int[before + numSamples - after];
+                for (int i = 0; i < before; i++) {
+                    train[i] = i;
+                }
+                for (int i = after; i < numSamples; i++) {
+                    train[before + i - after] = i;
+                }
+                if (train.length == 0) {
+                    throw new IllegalArgumentException("Purge gap " + purgeGap + " leaves no training samples in fold " + k);
+                }
+                folds.add(new Fold(train, range(testStart, testEnd)));
+            }
+        }
+        return folds;
+    }
+
+    private static int[] range(int start, int end) {
+        int[] indices = new int[end - start];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = start + i;
+        }
+        return indices;
+    }
+
+    /**
+     * 一折的训练和测试样本索引
+     */
+    public static class Fold {
+        private final int[] trainIndices;
+        private final int[] testIndices;
+
+        Fold(int[] trainIndices, int[] testIndices) {
+            this.trainIndices = trainIndices;
+            this.testIndices = testIndices;
+        }
+
+        public int[] getTrainIndices() {
+            return trainIndices.clone();
+        }
+
+        public int[] getTestIndices() {
+            return testIndices.clone();
+        }
+
+        int numTrain() {
+            return trainIndices.length;
+        }
+
+        int trainIndex(int i) {
+            return trainIndices[i];
+        }
+
+        int numTest() {
+            return testIndices.length;
+        }
+
+        int testIndex(int i) {
+            return testIndices[i];
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.quanttrading.ml.tuning;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 一组超参数的交叉验证结果
+ */
+public class TuningResult {
+    private final Map<String, Object> parameters;
+    private final double[] foldScores;
+    private final double meanScore;
+
+    TuningResult(Map<String, Object> parameters, double[] foldScores) {
+        this.parameters = Collections.unmodifiableMap(new TreeMap<>(parameters));
+        this.foldScores = foldScores.clone();
+
+        double sum = 0;
+        for (double score : foldScores) {
+            sum += score;
+        }
+        this.meanScore = foldScores.length > 0 ? sum / foldScores.length : Double.NaN;
+    }
+
+    /**
+     * 候选超参数（包括lookbackWindow）
+     */
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * 各折测试集上的均方误差
+     */
+    public double[] getFoldScores() {
+        return foldScores.clone();
+    }
+
+    /**
+     * 各折均方误差的平均值，越小越好
+     */
+    public double getMeanScore() {
+        return meanScore;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s -> MSE %.6f", parameters, meanScore);
+    }
+}
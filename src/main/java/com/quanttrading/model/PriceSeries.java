@@ -0,0 +1,138 @@
+package com.quanttrading.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 按日期升序排列的行情序列（不可变）
+ * 构造时校验并排序一次，之后评估和模拟直接按下标读取，不再排序也不会修改调用方的列表，可在多个线程间共享。
+ */
+public final class PriceSeries {
+    private final List<StockData> data;
+    private final LocalDate[] dates;
+    private final double[] closes;
+    private final long fingerprint;
+
+    private PriceSeries(List<StockData> sorted) {
+        this.data = Collections.unmodifiableList(sorted);
+        int n = sorted.size();
+        this.dates = new LocalDate[n];
+        this.closes = new double[n];
+        for (int i = 0; i < n; i++) {
+            dates[i] = sorted.get(i).getDate();
+            closes[i] = sorted.get(i).getClose();
+        }
+        this.fingerprint = computeFingerprint(sorted);
+    }
+
+    private static long computeFingerprint(List<StockData> sorted) {
+        long hash = 0x9E3779B97F4A7C15L ^ sorted.size();
+        for (StockData data : sorted) {
+            hash = mix(hash ^ data.getDate().toEpochDay());
+            hash = mix(hash ^ Double.doubleToLongBits(data.getClose()));
+            hash = mix(hash ^ data.getVolume());
+        }
+        return hash;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * 由行情列表创建序列，列表本身不会被修改
+     * @param stockData 行情数据，任意顺序
+     * @throws IllegalArgumentException 数据为空、日期缺失、日期重复或收盘价不是正数时
+     */
+    public static PriceSeries of(List<StockData> stockData) {
+        if (stockData == null || stockData.isEmpty()) {
+            throw new IllegalArgumentException("Price series must not be empty");
+        }
+
+        List<StockData> sorted = new ArrayList<>(stockData);
+        boolean ascending = true;
+        for (int i = 0; i < sorted.size(); i++) {
+            StockData current = sorted.get(i);
+            if (current == null || current.getDate() == null) {
+                throw new IllegalArgumentException("Missing stock data or date at index " + i);
+            }
+            if (i > 0 && current.getDate().isBefore(sorted.get(i - 1).getDate())) {
+                ascending = false;
+            }
+        }
+        // 数据源通常已按日期升序返回，只有乱序时才排序
+        if (!ascending) {
+            sorted.sort(Comparator.comparing(StockData::getDate));
+        }
+
+        for (int i = 0; i < sorted.size(); i++) {
+            StockData current = sorted.get(i);
+            if (i > 0 && current.getDate().equals(sorted.get(i - 1).getDate())) {
+                throw new IllegalArgumentException("Duplicate date in price series: " + current.getDate());
+            }
+            if (!(current.getClose() > 0) || Double.isInfinite(current.getClose())) {
+                throw new IllegalArgumentException("Invalid close price on " + current.getDate() + ": " + current.getClose());
+            }
+        }
+        return new PriceSeries(sorted);
+    }
+
+    public int size() {
+        return dates.length;
+    }
+
+    public StockData get(int index) {
+        return data.get(index);
+    }
+
+    public LocalDate dateAt(int index) {
+        return dates[index];
+    }
+
+    public double closeAt(int index) {
+        return closes[index];
+    }
+
+    public LocalDate getStartDate() {
+        return dates[0];
+    }
+
+    public LocalDate getEndDate() {
+        return dates[dates.length - 1];
+    }
+
+    /**
+     * 某日期的下标，不存在时返回负数
+     */
+    public int indexOf(LocalDate date) {
+        int index = Arrays.binarySearch(dates, date);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * 收盘价副本
+     */
+    public double[] getCloses() {
+        return closes.clone();
+    }
+
+    /**
+     * 由日期、收盘价和成交量计算的64位内容指纹，内容相同的序列指纹相同，可用作缓存键的一部分
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * 只读的行情列表视图
+     */
+    public List<StockData> asList() {
+        return data;
+    }
+}
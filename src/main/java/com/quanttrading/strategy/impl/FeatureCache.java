@@ -0,0 +1,73 @@
+package com.quanttrading.strategy.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 按K线索引寻址的有界特征缓存
+ * 容量固定，超出时按淘汰策略移除条目，长期运行时内存保持恒定。
+ */
+public class FeatureCache {
+
+    /**
+     * 淘汰策略
+     */
+    public enum EvictionPolicy {
+        /** 淘汰最久未使用的条目 */
+        LRU,
+        /** 淘汰最早写入的条目 */
+        FIFO
+    }
+
+    private final int capacity;
+    private final EvictionPolicy policy;
+    private final LinkedHashMap<Long, double[]> entries;
+
+    public FeatureCache(int capacity, EvictionPolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Feature cache capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        this.entries = new LinkedHashMap<Long, double[]>(capacity * 4 / 3 + 1, 0.75f, policy == EvictionPolicy.LRU) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, double[]> eldest) {
+                return size() > FeatureCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * 获取缓存的特征
+     * @param barIndex K线索引
+     * @return 特征数组，未命中时返回null
+     */
+    public double[] get(long barIndex) {
+        return entries.get(barIndex);
+    }
+
+    /**
+     * 写入特征
+     * @param barIndex K线索引
+     * @param features 特征数组
+     */
+    public void put(long barIndex, double[] features) {
+        entries.put(barIndex, features);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+}
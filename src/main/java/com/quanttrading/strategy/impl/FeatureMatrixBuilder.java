@@ -0,0 +1,143 @@
+package com.quanttrading.strategy.impl;
+
+/**
+ * 训练特征矩阵构建器
+ * 一次遍历价格序列，用滚动累加器计算全部样本的特征，结果按行优先写入连续的double[]块。
+ * 特征布局与{@link MachineLearningStrategy}逐条提取的特征一致：
+ * 当前价格、lookbackWindow个历史价格、价格变化、相对变化率、MA5/MA10/MA20及其差距、5日波动率。
+ */
+public class FeatureMatrixBuilder {
+    private static final int[] MA_WINDOWS = {5, 10, 20};
+    private static final int VOLATILITY_WINDOW = 5;
+
+    private final int lookbackWindow;
+    private final int numFeatures;
+
+    public FeatureMatrixBuilder(int lookbackWindow) {
+        if (lookbackWindow < 1) {
+            throw new IllegalArgumentException("Lookback window must be positive");
+        }
+        this.lookbackWindow = lookbackWindow;
+        this.numFeatures = lookbackWindow + 10;
+    }
+
+    public int getLookbackWindow() {
+        return lookbackWindow;
+    }
+
+    /**
+     * 每个样本的特征数
+     */
+    public int getNumFeatures() {
+        return numFeatures;
+    }
+
+    /**
+     * 给定序列长度可构建的样本数
+     */
+    public int getNumSamples(int seriesLength) {
+        return Math.max(0, seriesLength - lookbackWindow);
+    }
+
+    /**
+     * 构建特征矩阵
+     * @param prices 价格序列，样本i的历史为prices[i+1..i+lookbackWindow]
+     * @return 行优先的特征块，大小为样本数 * 特征数
+     */
+    public double[] build(double[] prices) {
+        double[] block = new double[getNumSamples(prices.length) * numFeatures];
+        build(prices, block);
+        return block;
+    }
+
+    /**
+     * 将特征矩阵写入预分配的块
+     * @param prices 价格序列
+     * @param block 行优先的输出块，长度至少为样本数 * 特征数
+     */
+    public void build(double[] prices, double[] block) {
+        int numSamples = getNumSamples(prices.length);
+        if (block.length < numSamples * numFeatures) {
+            throw new IllegalArgumentException("Feature block too small: " + block.length
+                    + " < " + numSamples * numFeatures);
+        }
+        if (numSamples == 0) {
+            return;
+        }
+
+        // 各均线窗口的滚动和，从最后一个样本开始向前滑动
+        double[] windowSums = new double[MA_WINDOWS.length];
+        int last = numSamples - 1;
+        for (int w = 0; w < MA_WINDOWS.length; w++) {
+            if (lookbackWindow >= MA_WINDOWS[w]) {
+                for (int k = 1; k <= MA_WINDOWS[w]; k++) {
+                    windowSums[w] += prices[last + k];
+                }
+            }
+        }
+
+        for (int i = last; i >= 0; i--) {
+            if (i < last) {
+                for (int w = 0; w < MA_WINDOWS.length; w++) {
+                    if (lookbackWindow >= MA_WINDOWS[w]) {
+                        windowSums[w] += prices[i + 1] - prices[i + 1 + MA_WINDOWS[w]];
+                    }
+                }
+            }
+
+            int offset = i * numFeatures;
+            double currentPrice = prices[i];
+
+            // 当前价格和历史价格
+            block[offset++] = currentPrice;
+            System.arraycopy(prices, i + 1, block, offset, lookbackWindow);
+            offset += lookbackWindow;
+
+            // 价格变化
+            double prevPrice = prices[i + 1];
+            block[offset++] = currentPrice - prevPrice;
+            block[offset++] = (currentPrice - prevPrice) / prevPrice;
+
+            // 移动平均及与当前价格的差距
+            for (int w = 0; w < MA_WINDOWS.length; w++) {
+                if (lookbackWindow >= MA_WINDOWS[w]) {
+                    double ma = windowSums[w] / MA_WINDOWS[w];
+                    block[offset++] = ma;
+                    block[offset++] = currentPrice - ma;
+                } else {
+                    block[offset++] = currentPrice;
+                    block[offset++] = 0.0;
+                }
+            }
+
+            // 5日波动率
+            block[offset] = lookbackWindow >= VOLATILITY_WINDOW ? volatility(prices, i + 1) : 0.0;
+        }
+    }
+
+    /**
+     * 将行优先的特征块拆分为算法接口使用的二维数组
+     */
+    public double[][] toRows(double[] block, int numSamples) {
+        double[][] rows = new double[numSamples][numFeatures];
+        for (int i = 0; i < numSamples; i++) {
+            System.arraycopy(block, i * numFeatures, rows[i], 0, numFeatures);
+        }
+        return rows;
+    }
+
+    private static double volatility(double[] prices, int start) {
+        double sum = 0.0;
+        for (int k = 0; k < VOLATILITY_WINDOW; k++) {
+            sum += prices[start + k];
+        }
+        double mean = sum / VOLATILITY_WINDOW;
+
+        double sumSquaredDiff = 0.0;
+        for (int k = 0; k < VOLATILITY_WINDOW; k++) {
+            double diff = prices[start + k] - mean;
+            sumSquaredDiff += diff * diff;
+        }
+        return Math.sqrt(sumSquaredDiff / VOLATILITY_WINDOW);
+    }
+}
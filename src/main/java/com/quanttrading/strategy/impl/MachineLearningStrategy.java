@@ -1,11 +1,14 @@
 package com.quanttrading.strategy.impl;
 
 import com.quanttrading.ml.MachineLearningAlgorithm;
+import com.quanttrading.ml.ModelRegistry;
+import com.quanttrading.ml.PermutationImportance;
 import com.quanttrading.model.ProcessedData;
 import com.quanttrading.model.StockData;
 import com.quanttrading.model.TradeSignal;
 import com.quanttrading.strategy.TradingStrategy;
 import com.quanttrading.visualization.ChartGenerator;
+import com.quanttrading.visualization.ChartRenderer;
 import com.quanttrading.ml.impl.SimpleRandomForestAlgorithm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,24 +21,33 @@ import java.time.LocalDate;
  */
 public class MachineLearningStrategy implements TradingStrategy {
     private static final Logger logger = LoggerFactory.getLogger(MachineLearningStrategy.class);
+    private static final int[] MA_WINDOWS = {5, 10, 20};
+    private static final int DEFAULT_FEATURE_CACHE_CAPACITY = 512;
+    private static final int DEFAULT_PREDICTION_HISTORY_CAPACITY = 4096;
+    private static final String FEATURE_IMPORTANCE_TITLE = "Feature Importance";
 
     private MachineLearningAlgorithm algorithm;
     private int lookbackWindow;
     private double buyThreshold;
     private double sellThreshold;
-    private Map<LocalDate, double[]> featureCache;
-    private List<Double> predictions;
-    private List<LocalDate> predictionDates;
+    private FeatureCache featureCache;
+    private PredictionHistory predictionHistory;
     private String[] featureNames;
+    private ModelRegistry modelRegistry;
+    private PermutationImportance permutationImportance;
+    private double importanceHoldoutFraction;
+    private double[][] importanceFeatures;
+    private double[] importanceLabels;
+    private int trainedSamples;
+    private LocalDate trainedFrom;
 
     public MachineLearningStrategy(MachineLearningAlgorithm algorithm) {
         this.algorithm = algorithm;
         this.lookbackWindow = 10;
         this.buyThreshold = 0.01;  // 预测收益率 > 1%
         this.sellThreshold = -0.01; // 预测收益率 < -1%
-        this.featureCache = new HashMap<>();
-        this.predictions = new ArrayList<>();
-        this.predictionDates = new ArrayList<>();
+        this.featureCache = new FeatureCache(DEFAULT_FEATURE_CACHE_CAPACITY, FeatureCache.EvictionPolicy.LRU);
+        this.predictionHistory = new PredictionHistory(DEFAULT_PREDICTION_HISTORY_CAPACITY);
     }
 
     public void setFeatureNames(String[] featureNames) {
@@ -46,26 +58,61 @@ public class MachineLearningStrategy implements TradingStrategy {
             ((SimpleRandomForestAlgorithm) algorithm).setFeatureNames(featureNames);
         }
     }
+
+    /**
+     * 设置模型缓存，训练数据和参数未变化时直接加载已训练的模型
+     */
+    public void setModelRegistry(ModelRegistry modelRegistry) {
+        this.modelRegistry = modelRegistry;
+    }
+
+    /**
+     * 设置置换重要性服务，算法自身不提供特征重要性时使用
+     * @param permutationImportance 置换重要性服务
+     * @param holdoutFraction 训练时留出最后这部分样本用于计算重要性，0表示直接使用训练样本
+     */
+    public void setPermutationImportance(PermutationImportance permutationImportance, double holdoutFraction) {
+        this.permutationImportance = permutationImportance;
+        this.importanceHoldoutFraction = holdoutFraction;
+    }
+
+    /**
+     * 设置特征缓存的淘汰策略
+     */
+    public void setFeatureCacheEvictionPolicy(FeatureCache.EvictionPolicy policy) {
+        this.featureCache = new FeatureCache(featureCache.getCapacity(), policy);
+    }
+
     @Override
     public TradeSignal generateSignal(ProcessedData currentData, List<ProcessedData> historicalData) {
+        return generateSignal(-1, currentData, historicalData);
+    }
+
+    /**
+     * 为序列中的一根K线生成交易信号，特征按K线在序列中的位置缓存
+     * @param barIndex K线在序列中的下标，负数表示位置未知，此时不使用特征缓存
+     */
+    public TradeSignal generateSignal(long barIndex, ProcessedData currentData, List<ProcessedData> historicalData) {
         if (historicalData.size() < lookbackWindow) {
             logger.warn("Not enough historical data for ML prediction. Need at least {} data points.", lookbackWindow);
             return TradeSignal.HOLD;
         }
 
-        // 获取当前日期的特征
+        // 获取当前K线的特征
         LocalDate date = currentData.getDate();
-        double[] features;
+        double[] features = barIndex >= 0 ? featureCache.get(barIndex) : null;
 
-        if (featureCache.containsKey(date)) {
-            features = featureCache.get(date);
-        } else {
+        if (features == null) {
             features = extractFeatures(currentData, historicalData);
-            featureCache.put(date, features);
+            if (barIndex >= 0) {
+                featureCache.put(barIndex, features);
+            }
         }
 
         // 使用模型预测
-        double prediction = algorithm.predict(features);
+        int sequenceLength = algorithm.getSequenceLength();
+        double prediction = algorithm.predict(sequenceLength > 1
+                ? sequenceInput(barIndex, features, sequenceLength) : features);
         double currentPrice = currentData.getValue();
 
         // 确保预测值不是0
@@ -82,8 +129,7 @@ public class MachineLearningStrategy implements TradingStrategy {
         logger.info("ML Prediction for {}: {} (current price: {})", date, prediction, currentPrice);
 
         // 收集预测结果
-        predictions.add(prediction);
-        predictionDates.add(date);
+        predictionHistory.add(barIndex, date, prediction);
 
         // 根据预测结果生成交易信号
         double predictedChange = (prediction - currentPrice) / currentPrice;
@@ -96,86 +142,103 @@ public class MachineLearningStrategy implements TradingStrategy {
             return TradeSignal.HOLD;
         }
     }
+    /**
+     * 为序列模型拼出截至当前K线的输入：按位置从特征缓存取出之前的K线特征，按时间顺序首尾相接。
+     * 位置未知或之前的K线不在缓存中时，用较晚一根K线的特征补齐。
+     */
+    private double[] sequenceInput(long barIndex, double[] features, int sequenceLength) {
+        int width = features.length;
+        double[] sequence = new double[sequenceLength * width];
+        double[] row = features;
+        for (int t = sequenceLength - 1; t >= 0; t--) {
+            long index = barIndex - (sequenceLength - 1 - t);
+            double[] cached = t < sequenceLength - 1 && barIndex >= 0 && index >= 0 ? featureCache.get(index) : null;
+            if (cached != null && cached.length == width) {
+                row = cached;
+            }
+            System.arraycopy(row, 0, sequence, t * width, width);
+        }
+        return sequence;
+    }
+
+    /**
+     * 按时间顺序把从start开始的sequenceLength行特征首尾相接
+     */
+    private static double[] flattenRows(double[][] rows, int start, int sequenceLength) {
+        int width = rows[start].length;
+        double[] sequence = new double[sequenceLength * width];
+        for (int t = 0; t < sequenceLength; t++) {
+            System.arraycopy(rows[start + t], 0, sequence, t * width, width);
+        }
+        return sequence;
+    }
+
     /**
      * 从数据中提取特征
      */
     private double[] extractFeatures(ProcessedData currentData, List<ProcessedData> historicalData) {
-        List<Double> features = new ArrayList<>();
+        int historySize = Math.min(lookbackWindow, historicalData.size());
+        double[] features = new double[historySize + 10];
+        int index = 0;
 
         // 添加当前价格
         double currentPrice = currentData.getValue();
-        features.add(currentPrice);
-
-        // 添加历史价格
-        int historySize = Math.min(lookbackWindow, historicalData.size());
-        for (int i = 0; i < historySize; i++) {
-            if (i < historicalData.size()) {
-                features.add(historicalData.get(i).getValue());
-            } else {
-                features.add(currentPrice); // 如果历史数据不足，使用当前价格填充
+        features[index++] = currentPrice;
+
+        // 添加历史价格，同时累计前20个历史价格用于计算移动平均
+        int windowSize = Math.min(20, historicalData.size());
+        double[] window = new double[windowSize];
+        for (int i = 0; i < Math.max(historySize, windowSize); i++) {
+            double value = historicalData.get(i).getValue();
+            if (i < historySize) {
+                features[index++] = value;
+            }
+            if (i < windowSize) {
+                window[i] = value;
             }
         }
 
         // 计算价格变化
         if (!historicalData.isEmpty()) {
-            double prevPrice = historicalData.get(0).getValue();
-            features.add(currentPrice - prevPrice); // 绝对变化
-            features.add((currentPrice - prevPrice) / prevPrice); // 相对变化率
-        } else {
-            features.add(0.0);
-            features.add(0.0);
-        }
-
-        // 计算技术指标作为特征
-        if (historicalData.size() >= 5) {
-            // 5日移动平均
-            double ma5 = historicalData.stream().limit(5).mapToDouble(ProcessedData::getValue).average().orElse(currentPrice);
-            features.add(ma5);
-            features.add(currentPrice - ma5); // 与MA5的差距
-        } else {
-            features.add(currentPrice);
-            features.add(0.0);
-        }
-
-        if (historicalData.size() >= 10) {
-            // 10日移动平均
-            double ma10 = historicalData.stream().limit(10).mapToDouble(ProcessedData::getValue).average().orElse(currentPrice);
-            features.add(ma10);
-            features.add(currentPrice - ma10); // 与MA10的差距
+            double prevPrice = window[0];
+            features[index++] = currentPrice - prevPrice; // 绝对变化
+            features[index++] = (currentPrice - prevPrice) / prevPrice; // 相对变化率
         } else {
-            features.add(currentPrice);
-            features.add(0.0);
+            index += 2;
         }
 
-        if (historicalData.size() >= 20) {
-            // 20日移动平均
-            double ma20 = historicalData.stream().limit(20).mapToDouble(ProcessedData::getValue).average().orElse(currentPrice);
-            features.add(ma20);
-            features.add(currentPrice - ma20); // 与MA20的差距
-        } else {
-            features.add(currentPrice);
-            features.add(0.0);
+        // 计算技术指标作为特征：5日、10日、20日移动平均及与其的差距
+        double sum = 0.0;
+        int count = 0;
+        for (int maWindow : MA_WINDOWS) {
+            if (windowSize >= maWindow) {
+                while (count < maWindow) {
+                    sum += window[count++];
+                }
+                double ma = sum / maWindow;
+                features[index++] = ma;
+                features[index++] = currentPrice - ma;
+            } else {
+                features[index++] = currentPrice;
+                features[index++] = 0.0;
+            }
         }
 
         // 计算波动率（过去5天的标准差）
-        if (historicalData.size() >= 5) {
-            double mean = historicalData.stream().limit(5).mapToDouble(ProcessedData::getValue).average().orElse(currentPrice);
-            double sumSquaredDiff = historicalData.stream().limit(5)
-                    .mapToDouble(d -> Math.pow(d.getValue() - mean, 2))
-                    .sum();
-            double volatility = Math.sqrt(sumSquaredDiff / 5);
-            features.add(volatility);
-        } else {
-            features.add(0.0);
-        }
-
-        // 转换为数组
-        double[] featureArray = new double[features.size()];
-        for (int i = 0; i < features.size(); i++) {
-            featureArray[i] = features.get(i);
+        if (windowSize >= 5) {
+            double mean = 0.0;
+            for (int i = 0; i < 5; i++) {
+                mean += window[i];
+            }
+            mean /= 5;
+            double sumSquaredDiff = 0.0;
+            for (int i = 0; i < 5; i++) {
+                sumSquaredDiff += (window[i] - mean) * (window[i] - mean);
+            }
+            features[index] = Math.sqrt(sumSquaredDiff / 5);
         }
 
-        return featureArray;
+        return features;
     }
 
     @Override
@@ -189,10 +252,17 @@ public class MachineLearningStrategy implements TradingStrategy {
         if (params.containsKey("sellThreshold")) {
             this.sellThreshold = params.get("sellThreshold");
         }
+        if (params.containsKey("featureCacheCapacity")) {
+            this.featureCache = new FeatureCache(params.get("featureCacheCapacity").intValue(), featureCache.getPolicy());
+        }
+        if (params.containsKey("predictionHistoryCapacity")) {
+            this.predictionHistory = new PredictionHistory(params.get("predictionHistoryCapacity").intValue());
+        }
     }
 
     /**
      * 训练模型
+     * 算法能在已有模型（包括从模型缓存加载的）上继续训练且序列起点未变时，只用上次训练之后新增的样本做增量训练。
      * @param stockData 历史股票数据
      */
     public void trainModel(List<StockData> stockData) {
@@ -201,39 +271,25 @@ public class MachineLearningStrategy implements TradingStrategy {
             return;
         }
 
-        int numSamples = stockData.size() - lookbackWindow;
-        double[][] features = new double[numSamples][];
-        double[] labels = new double[numSamples];
-
-        // 准备训练数据
-        for (int i = 0; i < numSamples; i++) {
-            // 提取特征
-            List<ProcessedData> history = new ArrayList<>();
-            for (int j = i + 1; j <= i + lookbackWindow; j++) {
-                if (j < stockData.size()) {
-                    StockData sd = stockData.get(j);
-                    history.add(new ProcessedData(sd.getClose(), sd.getDate()));
-                }
-            }
-
-            StockData current = stockData.get(i);
-            ProcessedData currentProcessed = new ProcessedData(current.getClose(), current.getDate());
-
-            features[i] = extractFeatures(currentProcessed, history);
-
-            // 修改标签计算 - 直接使用价格作为预测目标
-            current = stockData.get(i);
+        // 一次遍历构建全部训练样本的特征
+        double[] prices = new double[stockData.size()];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = stockData.get(i).getClose();
+        }
+        FeatureMatrixBuilder featureBuilder = new FeatureMatrixBuilder(lookbackWindow);
+        int numSamples = featureBuilder.getNumSamples(prices.length);
+        double[][] features = featureBuilder.toRows(featureBuilder.build(prices), numSamples);
 
-            // 使用当前价格作为标签 - 这样模型将学习预测价格本身
-            labels[i] = current.getClose();
+        // 使用当前价格作为标签 - 这样模型将学习预测价格本身
+        double[] labels = Arrays.copyOf(prices, numSamples);
 
-            // 记录样本
+        // 记录样本
+        for (int i = 0; i < numSamples; i++) {
             if (i < 5 || i >= numSamples - 5) {
                 logger.info("Sample {}: Label={}", i, labels[i]);
             }
         }
 
-
         // 记录训练数据统计
         double minLabel = Arrays.stream(labels).min().orElse(0);
         double maxLabel = Arrays.stream(labels).max().orElse(0);
@@ -242,13 +298,58 @@ public class MachineLearningStrategy implements TradingStrategy {
         logger.info("Training data prepared: {} samples", numSamples);
         logger.info("Labels statistics - Min: {}, Max: {}, Avg: {}", minLabel, maxLabel, avgLabel);
 
-        // 训练模型
-        algorithm.train(features, labels);
-        logger.info("Model training completed with {} samples", numSamples);
+        // 算法能在已有模型上继续训练且序列起点未变时，只使用上次训练之后新增的样本
+        int firstSample = 0;
+        LocalDate seriesStart = stockData.get(0).getDate();
+        if (trainedSamples > 0 && seriesStart.equals(trainedFrom) && numSamples >= trainedSamples
+                && algorithm.canContinueTraining(featureBuilder.getNumFeatures())) {
+            firstSample = trainedSamples;
+            if (firstSample == numSamples) {
+                logger.info("No new samples since last fit, skipping warm start training");
+                return;
+            }
+            features = Arrays.copyOfRange(features, firstSample, numSamples);
+            labels = Arrays.copyOfRange(labels, firstSample, numSamples);
+            numSamples -= firstSample;
+            logger.info("Warm start: training on {} new samples after sample {}", numSamples, firstSample);
+        }
+
+        // 留出部分样本用于计算置换重要性
+        if (permutationImportance != null) {
+            int numHoldout = (int) (numSamples * importanceHoldoutFraction);
+            if (numHoldout > 0 && numHoldout < numSamples) {
+                numSamples -= numHoldout;
+                importanceFeatures = Arrays.copyOfRange(features, numSamples, features.length);
+                importanceLabels = Arrays.copyOfRange(labels, numSamples, labels.length);
+                features = Arrays.copyOf(features, numSamples);
+                labels = Arrays.copyOf(labels, numSamples);
+                logger.info("Holding out {} samples for permutation importance", numHoldout);
+            } else {
+                importanceFeatures = features;
+                importanceLabels = labels;
+            }
+        }
+
+        // 训练模型（模型缓存命中时直接加载；热启动增量训练依赖已有模型，不走缓存）
+        String modelKey = modelRegistry != null && firstSample == 0
+                ? modelRegistry.computeKey(algorithm, features, labels) : null;
+        if (modelKey != null && modelRegistry.load(modelKey, algorithm)) {
+            logger.info("Model loaded from cache, skipping training");
+        } else {
+            algorithm.train(features, labels);
+            logger.info("Model training completed with {} samples", numSamples);
+            if (modelKey != null) {
+                modelRegistry.store(modelKey, algorithm);
+            }
+        }
+        trainedSamples = firstSample + numSamples;
+        trainedFrom = seriesStart;
 
         // 测试模型是否能够生成有意义的预测
-        if (features.length > 0) {
-            double testPrediction = algorithm.predict(features[0]);
+        int sequenceLength = algorithm.getSequenceLength();
+        if (features.length >= sequenceLength) {
+            double testPrediction = algorithm.predict(sequenceLength > 1
+                    ? flattenRows(features, 0, sequenceLength) : features[0]);
             logger.info("Test prediction after training: {}", testPrediction);
 
             if (Math.abs(testPrediction) < 0.0001) {
@@ -261,72 +362,131 @@ public class MachineLearningStrategy implements TradingStrategy {
      * 可视化预测结果
      */
     public void visualizePredictions(List<StockData> stockData) {
+        List<Double> predictions = new ArrayList<>();
+        List<LocalDate> dates = new ArrayList<>();
+        String title = collectPredictions(stockData, predictions, dates);
+        ChartGenerator.createPredictionChart(title, stockData, predictions, dates);
+    }
+
+    /**
+     * 预测结果图表的渲染任务，用于无窗口模式下与其他图表一起批量渲染
+     * @param fileName 输出文件名
+     */
+    public ChartRenderer.Job predictionChartJob(List<StockData> stockData, String fileName) {
+        List<Double> predictions = new ArrayList<>();
+        List<LocalDate> dates = new ArrayList<>();
+        String title = collectPredictions(stockData, predictions, dates);
+        return new ChartRenderer.Job(fileName,
+                () -> ChartGenerator.buildPredictionChart(title, stockData, predictions, dates));
+    }
+
+    /**
+     * 收集待绘制的预测值和日期，没有预测结果时生成测试数据
+     * @return 图表标题
+     */
+    private String collectPredictions(List<StockData> stockData, List<Double> predictions, List<LocalDate> dates) {
         logger.info("visualizePredictions called with {} stock data points", stockData.size());
-        logger.info("Predictions collected: {}, Dates collected: {}", predictions.size(), predictionDates.size());
+        logger.info("Predictions collected: {} (capacity {})", predictionHistory.size(), predictionHistory.getCapacity());
 
-        if (predictions.isEmpty() || predictionDates.isEmpty()) {
+        String symbol = stockData.size() > 0 ? stockData.get(0).getSymbol() : "Unknown";
+        if (predictionHistory.isEmpty()) {
             logger.warn("No predictions available for visualization. Generating test data.");
 
             // 生成测试数据
-            List<Double> testPredictions = new ArrayList<>();
-            List<LocalDate> testDates = new ArrayList<>();
-
             for (StockData data : stockData) {
-                testPredictions.add(data.getClose() * (1 + (Math.random() - 0.5) * 0.05));
-                testDates.add(data.getDate());
+                predictions.add(data.getClose() * (1 + (Math.random() - 0.5) * 0.05));
+                dates.add(data.getDate());
             }
-
-            String symbol = stockData.size() > 0 ? stockData.get(0).getSymbol() : "Unknown";
-            String title = symbol + " - TEST Prediction vs Actual Price";
-
-            ChartGenerator.createPredictionChart(title, stockData, testPredictions, testDates);
-            return;
+            return symbol + " - TEST Prediction vs Actual Price";
         }
 
 
         // 记录预测统计信息
-        double minPred = predictions.stream().mapToDouble(Double::doubleValue).min().orElse(0);
-        double maxPred = predictions.stream().mapToDouble(Double::doubleValue).max().orElse(0);
-        double avgPred = predictions.stream().mapToDouble(Double::doubleValue).average().orElse(0);
-        double variance = predictions.stream()
-                .mapToDouble(p -> Math.pow(p - avgPred, 2))
-                .average()
-                .orElse(0);
+        int count = predictionHistory.size();
+        double minPred = Double.MAX_VALUE;
+        double maxPred = -Double.MAX_VALUE;
+        double sumPred = 0;
+        for (int i = 0; i < count; i++) {
+            double p = predictionHistory.valueAt(i);
+            minPred = Math.min(minPred, p);
+            maxPred = Math.max(maxPred, p);
+            sumPred += p;
+        }
+        double avgPred = sumPred / count;
+        double variance = 0;
+        for (int i = 0; i < count; i++) {
+            variance += Math.pow(predictionHistory.valueAt(i) - avgPred, 2);
+        }
+        variance /= count;
 
         logger.info("Predictions stats - Min: {}, Max: {}, Avg: {}, Variance: {}",
                 minPred, maxPred, avgPred, variance);
 
-        String symbol = stockData.size() > 0 ? stockData.get(0).getSymbol() : "Unknown";
-        String title = symbol + " - ML Prediction vs Actual Price";
-
-        ChartGenerator.createPredictionChart(title, stockData, predictions, predictionDates);
+        predictions.addAll(predictionHistory.toValueList());
+        dates.addAll(predictionHistory.toDateList());
+        return symbol + " - ML Prediction vs Actual Price";
     }
 
     /**
-     * 获取预测值列表
+     * 获取预测值列表（按时间顺序的副本）
      */
     public List<Double> getPredictions() {
-        return predictions;
+        return predictionHistory.toValueList();
     }
 
     /**
-     * 获取预测日期列表
+     * 获取预测日期列表（按时间顺序的副本）
      */
     public List<LocalDate> getPredictionDates() {
-        return predictionDates;
+        return predictionHistory.toDateList();
+    }
+
+    /**
+     * 获取预测结果环形缓冲区
+     */
+    public PredictionHistory getPredictionHistory() {
+        return predictionHistory;
     }
 
     /**
      * 可视化特征重要性
      */
     public void visualizeFeatureImportance() {
+        Map<String, Double> importance = collectFeatureImportance();
+        if (!importance.isEmpty()) {
+            ChartGenerator.createFeatureImportanceChart(FEATURE_IMPORTANCE_TITLE, importance);
+        }
+    }
+
+    /**
+     * 特征重要性图表的渲染任务，用于无窗口模式下与其他图表一起批量渲染
+     * @param fileName 输出文件名
+     * @return 渲染任务，没有特征重要性数据时为null
+     */
+    public ChartRenderer.Job featureImportanceChartJob(String fileName) {
+        Map<String, Double> importance = collectFeatureImportance();
+        if (importance.isEmpty()) {
+            return null;
+        }
+        return new ChartRenderer.Job(fileName,
+                () -> ChartGenerator.buildFeatureImportanceChart(FEATURE_IMPORTANCE_TITLE, importance));
+    }
+
+    /**
+     * 获取特征重要性并打印，算法不提供时使用置换重要性
+     */
+    private Map<String, Double> collectFeatureImportance() {
         logger.info("visualizeFeatureImportance called");
         Map<String, Double> importance = algorithm.getFeatureImportance();
+        if (importance.isEmpty() && permutationImportance != null && importanceFeatures != null) {
+            logger.info("Algorithm provides no feature importance, computing permutation importance");
+            importance = permutationImportance.computeImportance(algorithm, importanceFeatures, importanceLabels, featureNames);
+        }
         logger.info("Feature importance map size: {}", importance.size());
 
         if (importance.isEmpty()) {
             logger.warn("No feature importance data available");
-            return;
+            return importance;
         }
 
         // 打印特征重要性
@@ -335,8 +495,6 @@ public class MachineLearningStrategy implements TradingStrategy {
                 .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
                 .forEach(e -> sb.append(String.format("  %s: %.4f\n", e.getKey(), e.getValue())));
         logger.info(sb.toString());
-
-        String title = "Feature Importance";
-        ChartGenerator.createFeatureImportanceChart(title, importance);
+        return importance;
     }
 }
\ No newline at end of file
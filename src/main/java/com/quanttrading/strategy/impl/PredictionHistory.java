@@ -0,0 +1,105 @@
+package com.quanttrading.strategy.impl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 固定容量的预测结果环形缓冲区
+ * 预测值、K线在序列中的下标和日期保存在基本类型数组中，写满后覆盖最早的记录。
+ */
+public class PredictionHistory {
+    private final double[] values;
+    private final long[] barIndices;
+    private final long[] epochDays;
+    private int start;
+    private int size;
+
+    public PredictionHistory(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Prediction history capacity must be positive");
+        }
+        this.values = new double[capacity];
+        this.barIndices = new long[capacity];
+        this.epochDays = new long[capacity];
+    }
+
+    /**
+     * 记录一次预测
+     * @param barIndex K线在序列中的下标，未知时为负数
+     * @param date K线日期（同一日期可能有多根K线）
+     */
+    public void add(long barIndex, LocalDate date, double prediction) {
+        int index;
+        if (size < values.length) {
+            index = (start + size) % values.length;
+            size++;
+        } else {
+            index = start;
+            start = (start + 1) % values.length;
+        }
+        values[index] = prediction;
+        barIndices[index] = barIndex;
+        epochDays[index] = date.toEpochDay();
+    }
+
+    /**
+     * 第i条记录的预测值（0为最早保留的记录）
+     */
+    public double valueAt(int i) {
+        return values[(start + i) % values.length];
+    }
+
+    /**
+     * 第i条记录对应K线在序列中的下标
+     */
+    public long barIndexAt(int i) {
+        return barIndices[(start + i) % values.length];
+    }
+
+    /**
+     * 第i条记录的日期
+     */
+    public LocalDate dateAt(int i) {
+        return LocalDate.ofEpochDay(epochDays[(start + i) % values.length]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    /**
+     * 按时间顺序复制出预测值列表
+     */
+    public List<Double> toValueList() {
+        List<Double> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(valueAt(i));
+        }
+        return result;
+    }
+
+    /**
+     * 按时间顺序复制出日期列表
+     */
+    public List<LocalDate> toDateList() {
+        List<LocalDate> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(dateAt(i));
+        }
+        return result;
+    }
+}
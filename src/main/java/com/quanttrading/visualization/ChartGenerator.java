@@ -33,17 +33,54 @@ import java.util.Map.Entry;
 public class ChartGenerator {
     private static final Logger logger = LoggerFactory.getLogger(ChartGenerator.class);
 
+    // 默认每条序列最多绘制的点数
+    public static final int DEFAULT_MAX_POINTS = 2000;
+
+    private static volatile int maxPoints = DEFAULT_MAX_POINTS;
+
     /**
-     * 创建并显示价格和移动平均线图表
+     * 设置每条序列最多绘制的点数，超过时先用LTTB降采样再创建序列，交易信号所在的交易日始终保留
+     * @param maxPoints 目标点数，0表示不降采样
      */
-    public static void createPriceMAChart(String title, List<StockData> stockData,
-                                          Map<String, List<Double>> indicators,
-                                          Map<Date, TradeSignal> signals) {
+    public static void setMaxPoints(int maxPoints) {
+        if (maxPoints < 0) {
+            throw new IllegalArgumentException("Max points must not be negative");
+        }
+        ChartGenerator.maxPoints = maxPoints;
+    }
+
+    public static int getMaxPoints() {
+        return maxPoints;
+    }
+
+    /**
+     * 创建并显示价格和移动平均线图表，无图形环境时只创建不显示
+     */
+    public static JFreeChart createPriceMAChart(String title, List<StockData> stockData,
+                                                Map<String, List<Double>> indicators,
+                                                Map<Date, TradeSignal> signals) {
+        JFreeChart chart = buildPriceMAChart(title, stockData, indicators, signals);
+        if (showChart(chart, title, 1000, 600, JFrame.EXIT_ON_CLOSE) != null) {
+            logger.info("Chart created and displayed: {}", title);
+        }
+        return chart;
+    }
+
+    /**
+     * 创建价格和移动平均线图表，不打开窗口
+     */
+    public static JFreeChart buildPriceMAChart(String title, List<StockData> stockData,
+                                               Map<String, List<Double>> indicators,
+                                               Map<Date, TradeSignal> signals) {
+        // 降采样后保留的交易日
+        int[] indices = sampleIndices(stockData, signals);
+
         // 创建价格时间序列
         TimeSeries priceSeries = new TimeSeries("Price");
 
         // 添加价格数据
-        for (StockData data : stockData) {
+        for (int i : indices) {
+            StockData data = stockData.get(i);
             Date date = Date.from(data.getDate().atStartOfDay(ZoneId.systemDefault()).toInstant());
             priceSeries.add(new Day(date), data.getClose());
         }
@@ -57,7 +94,10 @@ public class ChartGenerator {
             TimeSeries indicatorSeries = new TimeSeries(entry.getKey());
             List<Double> values = entry.getValue();
 
-            for (int i = 0; i < values.size() && i < stockData.size(); i++) {
+            for (int i : indices) {
+                if (i >= values.size()) {
+                    break;
+                }
                 Date date = Date.from(stockData.get(i).getDate().atStartOfDay(ZoneId.systemDefault()).toInstant());
                 indicatorSeries.add(new Day(date), values.get(i));
             }
@@ -106,34 +146,8 @@ public class ChartGenerator {
 
         // 添加交易信号标记
         if (signals != null && !signals.isEmpty()) {
-            TimeSeries buySeries = new TimeSeries("Buy");
-            TimeSeries sellSeries = new TimeSeries("Sell");
-
-            for (Map.Entry<Date, TradeSignal> entry : signals.entrySet()) {
-                Date date = entry.getKey();
-                Day day = new Day(date);
-
-                // 获取该日期的价格
-                double price = 0;
-                for (StockData data : stockData) {
-                    Date dataDate = Date.from(data.getDate().atStartOfDay(ZoneId.systemDefault()).toInstant());
-                    if (day.equals(new Day(dataDate))) {
-                        price = data.getClose();
-                        break;
-                    }
-                }
-
-                if (entry.getValue() == TradeSignal.BUY) {
-                    buySeries.add(day, price);
-                } else if (entry.getValue() == TradeSignal.SELL) {
-                    sellSeries.add(day, price);
-                }
-            }
-
             // 添加买入/卖出信号到数据集
-            TimeSeriesCollection signalDataset = new TimeSeriesCollection();
-            signalDataset.addSeries(buySeries);
-            signalDataset.addSeries(sellSeries);
+            TimeSeriesCollection signalDataset = createSignalDataset(stockData, signals);
 
             // 创建信号渲染器
             XYLineAndShapeRenderer signalRenderer = new XYLineAndShapeRenderer();
@@ -153,28 +167,33 @@ public class ChartGenerator {
 
         plot.setRenderer(0, renderer);
 
-        // 显示图表
-        ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(1000, 600));
-
-        JFrame frame = new JFrame(title);
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setContentPane(chartPanel);
-        frame.pack();
-        frame.setLocationRelativeTo(null);
-        frame.setVisible(true);
+        return chart;
+    }
 
-        logger.info("Chart created and displayed: {}", title);
+    /**
+     * 创建并显示蜡烛图，无图形环境时只创建不显示
+     */
+    public static JFreeChart createCandlestickChart(String title, List<StockData> stockData,
+                                                    Map<String, List<Double>> indicators,
+                                                    Map<Date, TradeSignal> signals) {
+        JFreeChart chart = buildCandlestickChart(title, stockData, indicators, signals);
+        if (showChart(chart, title, 1000, 600, JFrame.EXIT_ON_CLOSE) != null) {
+            logger.info("Candlestick chart created and displayed: {}", title);
+        }
+        return chart;
     }
 
     /**
-     * 创建蜡烛图
+     * 创建蜡烛图，不打开窗口
      */
-    public static void createCandlestickChart(String title, List<StockData> stockData,
-                                              Map<String, List<Double>> indicators,
-                                              Map<Date, TradeSignal> signals) {
+    public static JFreeChart buildCandlestickChart(String title, List<StockData> stockData,
+                                                   Map<String, List<Double>> indicators,
+                                                   Map<Date, TradeSignal> signals) {
+        // 降采样后保留的交易日
+        int[] indices = sampleIndices(stockData, signals);
+
         // 创建蜡烛图数据集
-        OHLCDataset candlestickDataset = createCandlestickDataset(stockData);
+        OHLCDataset candlestickDataset = createCandlestickDataset(stockData, indices);
 
         // 创建蜡烛图
         JFreeChart chart = ChartFactory.createCandlestickChart(
@@ -208,7 +227,10 @@ public class ChartGenerator {
                 TimeSeries series = new TimeSeries(entry.getKey());
                 List<Double> values = entry.getValue();
 
-                for (int i = 0; i < values.size() && i < stockData.size(); i++) {
+                for (int i : indices) {
+                    if (i >= values.size()) {
+                        break;
+                    }
                     Date date = Date.from(stockData.get(i).getDate().atStartOfDay(ZoneId.systemDefault()).toInstant());
                     series.add(new Day(date), values.get(i));
                 }
@@ -236,34 +258,8 @@ public class ChartGenerator {
 
         // 添加交易信号
         if (signals != null && !signals.isEmpty()) {
-            TimeSeriesCollection signalDataset = new TimeSeriesCollection();
-            TimeSeries buySeries = new TimeSeries("Buy");
-            TimeSeries sellSeries = new TimeSeries("Sell");
-
-            for (Map.Entry<Date, TradeSignal> entry : signals.entrySet()) {
-                Date date = entry.getKey();
-                Day day = new Day(date);
-
-                // 获取该日期的价格
-                double price = 0;
-                for (StockData data : stockData) {
-                    Date dataDate = Date.from(data.getDate().atStartOfDay(ZoneId.systemDefault()).toInstant());
-                    if (day.equals(new Day(dataDate))) {
-                        price = data.getClose();
-                        break;
-                    }
-                }
-
-                if (entry.getValue() == TradeSignal.BUY) {
-                    buySeries.add(day, price);
-                } else if (entry.getValue() == TradeSignal.SELL) {
-                    sellSeries.add(day, price);
-                }
-            }
-
             // 添加买入/卖出信号到数据集
-            signalDataset.addSeries(buySeries);
-            signalDataset.addSeries(sellSeries);
+            TimeSeriesCollection signalDataset = createSignalDataset(stockData, signals);
 
             // 创建信号渲染器
             XYLineAndShapeRenderer signalRenderer = new XYLineAndShapeRenderer();
@@ -281,25 +277,15 @@ public class ChartGenerator {
             plot.setRenderer(2, signalRenderer);
         }
 
-        // 显示图表
-        ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(1000, 600));
-
-        JFrame frame = new JFrame(title);
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setContentPane(chartPanel);
-        frame.pack();
-        frame.setLocationRelativeTo(null);
-        frame.setVisible(true);
-
-        logger.info("Candlestick chart created and displayed: {}", title);
+        return chart;
     }
 
     /**
      * 创建蜡烛图数据集
+     * 每个保留的交易日合并到下一个保留日之前的所有K线：取其开盘价、区间最高价、最低价、最后一根的收盘价和成交量之和，降采样后不丢失极值
      */
-    private static OHLCDataset createCandlestickDataset(List<StockData> stockData) {
-        int size = stockData.size();
+    private static OHLCDataset createCandlestickDataset(List<StockData> stockData, int[] indices) {
+        int size = indices.length;
         Date[] dates = new Date[size];
         double[] opens = new double[size];
         double[] highs = new double[size];
@@ -307,14 +293,21 @@ public class ChartGenerator {
         double[] closes = new double[size];
         double[] volumes = new double[size];
 
-        for (int i = 0; i < size; i++) {
-            StockData data = stockData.get(i);
-            dates[i] = Date.from(data.getDate().atStartOfDay(ZoneId.systemDefault()).toInstant());
-            opens[i] = data.getOpen();
-            highs[i] = data.getHigh();
-            lows[i] = data.getLow();
-            closes[i] = data.getClose();
-            volumes[i] = data.getVolume();
+        for (int k = 0; k < size; k++) {
+            StockData data = stockData.get(indices[k]);
+            int end = k + 1 < size ? indices[k + 1] : stockData.size();
+            dates[k] = Date.from(data.getDate().atStartOfDay(ZoneId.systemDefault()).toInstant());
+            opens[k] = data.getOpen();
+            highs[k] = data.getHigh();
+            lows[k] = data.getLow();
+            closes[k] = stockData.get(end - 1).getClose();
+            volumes[k] = 0;
+            for (int i = indices[k]; i < end; i++) {
+                StockData bar = stockData.get(i);
+                highs[k] = Math.max(highs[k], bar.getHigh());
+                lows[k] = Math.min(lows[k], bar.getLow());
+                volumes[k] += bar.getVolume();
+            }
         }
 
         return new DefaultHighLowDataset(
@@ -328,6 +321,96 @@ public class ChartGenerator {
         );
     }
 
+    /**
+     * 按收盘价做LTTB降采样，返回要绘制的交易日下标，交易信号所在的交易日始终保留
+     */
+    private static int[] sampleIndices(List<StockData> stockData, Map<Date, TradeSignal> signals) {
+        int n = stockData.size();
+        double[] closes = new double[n];
+        for (int i = 0; i < n; i++) {
+            closes[i] = stockData.get(i).getClose();
+        }
+        if (maxPoints == 0 || n <= maxPoints) {
+            return LttbDownsampler.select(closes, 0);
+        }
+
+        int[] mustKeep = null;
+        if (signals != null && !signals.isEmpty()) {
+            Map<LocalDate, Integer> indexByDate = new HashMap<>(n * 4 / 3 + 1);
+            for (int i = 0; i < n; i++) {
+                indexByDate.put(stockData.get(i).getDate(), i);
+            }
+            mustKeep = new int[signals.size()];
+            int count = 0;
+            for (Date date : signals.keySet()) {
+                Integer index = indexByDate.get(date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
+                if (index != null) {
+                    mustKeep[count++] = index;
+                }
+            }
+            mustKeep = Arrays.copyOf(mustKeep, count);
+        }
+
+        int[] indices = LttbDownsampler.select(closes, maxPoints, mustKeep);
+        logger.debug("Downsampled {} bars to {} points", n, indices.length);
+        return indices;
+    }
+
+    /**
+     * 创建买入/卖出信号数据集，标记画在该交易日的收盘价上
+     */
+    private static TimeSeriesCollection createSignalDataset(List<StockData> stockData, Map<Date, TradeSignal> signals) {
+        // 按日期索引收盘价，避免对每个信号扫描全部行情
+        Map<LocalDate, Double> closeByDate = new HashMap<>(stockData.size() * 4 / 3 + 1);
+        for (StockData data : stockData) {
+            closeByDate.putIfAbsent(data.getDate(), data.getClose());
+        }
+
+        TimeSeries buySeries = new TimeSeries("Buy");
+        TimeSeries sellSeries = new TimeSeries("Sell");
+
+        for (Map.Entry<Date, TradeSignal> entry : signals.entrySet()) {
+            Day day = new Day(entry.getKey());
+
+            // 获取该日期的价格
+            LocalDate date = entry.getKey().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+            double price = closeByDate.getOrDefault(date, 0.0);
+
+            if (entry.getValue() == TradeSignal.BUY) {
+                buySeries.add(day, price);
+            } else if (entry.getValue() == TradeSignal.SELL) {
+                sellSeries.add(day, price);
+            }
+        }
+
+        TimeSeriesCollection signalDataset = new TimeSeriesCollection();
+        signalDataset.addSeries(buySeries);
+        signalDataset.addSeries(sellSeries);
+        return signalDataset;
+    }
+
+    /**
+     * 在窗口中显示图表
+     * @return 显示图表的窗口，无图形环境（java.awt.headless=true）时返回null
+     */
+    private static JFrame showChart(JFreeChart chart, String title, int width, int height, int closeOperation) {
+        if (GraphicsEnvironment.isHeadless()) {
+            logger.warn("Headless environment, chart not displayed: {}", title);
+            return null;
+        }
+
+        ChartPanel chartPanel = new ChartPanel(chart);
+        chartPanel.setPreferredSize(new Dimension(width, height));
+
+        JFrame frame = new JFrame(title);
+        frame.setDefaultCloseOperation(closeOperation);
+        frame.setContentPane(chartPanel);
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+        return frame;
+    }
+
     /**
      * 保存图表为图片文件
      */
@@ -346,11 +429,27 @@ public class ChartGenerator {
     }
 
     /**
-     * 创建预测与实际价格对比图
+     * 创建并显示预测与实际价格对比图，无图形环境时只创建不显示
      */
-    public static void createPredictionChart(String title, List<StockData> actualData,
-                                             List<Double> predictions,
-                                             List<LocalDate> predictionDates) {
+    public static JFreeChart createPredictionChart(String title, List<StockData> actualData,
+                                                   List<Double> predictions,
+                                                   List<LocalDate> predictionDates) {
+        JFreeChart chart = buildPredictionChart(title, actualData, predictions, predictionDates);
+        JFrame frame = showChart(chart, title, 1000, 600, JFrame.DISPOSE_ON_CLOSE); // 使用DISPOSE_ON_CLOSE而不是EXIT_ON_CLOSE
+        if (frame != null) {
+            frame.toFront();  // 确保窗口在前台
+            frame.setState(JFrame.NORMAL); // 确保窗口不是最小化的
+            logger.info("Prediction chart created and displayed: {}", title);
+        }
+        return chart;
+    }
+
+    /**
+     * 创建预测与实际价格对比图，不打开窗口
+     */
+    public static JFreeChart buildPredictionChart(String title, List<StockData> actualData,
+                                                  List<Double> predictions,
+                                                  List<LocalDate> predictionDates) {
         // 检查预测值是否都是0或接近0
         boolean allZero = true;
         for (Double pred : predictions) {
@@ -420,14 +519,19 @@ public class ChartGenerator {
 
         // 创建实际价格时间序列
         TimeSeries actualSeries = new TimeSeries("Actual Price");
-        for (StockData data : actualData) {
+        for (int i : sampleIndices(actualData, null)) {
+            StockData data = actualData.get(i);
             Date date = Date.from(data.getDate().atStartOfDay(ZoneId.systemDefault()).toInstant());
             actualSeries.add(new Day(date), data.getClose());
         }
 
         // 创建预测价格时间序列
+        double[] predictionValues = new double[predictions.size()];
+        for (int i = 0; i < predictionValues.length; i++) {
+            predictionValues[i] = predictions.get(i);
+        }
         TimeSeries predictionSeries = new TimeSeries("Predicted Price");
-        for (int i = 0; i < predictions.size(); i++) {
+        for (int i : LttbDownsampler.select(predictionValues, maxPoints)) {
             Date date = Date.from(predictionDates.get(i).atStartOfDay(ZoneId.systemDefault()).toInstant());
             predictionSeries.add(new Day(date), predictions.get(i));
         }
@@ -463,26 +567,24 @@ public class ChartGenerator {
         renderer.setSeriesShapesVisible(1, true);
         plot.setRenderer(renderer);
 
-        // 显示图表
-        ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(1000, 600));
-
-        JFrame frame = new JFrame(title);
-        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE); // 使用DISPOSE_ON_CLOSE而不是EXIT_ON_CLOSE
-        frame.setContentPane(chartPanel);
-        frame.pack();
-        frame.setLocationRelativeTo(null);
-        frame.setVisible(true);
-        frame.toFront();  // 确保窗口在前台
-        frame.setState(JFrame.NORMAL); // 确保窗口不是最小化的
+        return chart;
+    }
 
-        logger.info("Prediction chart created and displayed: {}", title);
+    /**
+     * 创建并显示特征重要性图表，无图形环境时只创建不显示
+     */
+    public static JFreeChart createFeatureImportanceChart(String title, Map<String, Double> featureImportance) {
+        JFreeChart chart = buildFeatureImportanceChart(title, featureImportance);
+        if (showChart(chart, title, 800, 500, JFrame.EXIT_ON_CLOSE) != null) {
+            logger.info("Feature importance chart created and displayed: {}", title);
+        }
+        return chart;
     }
 
     /**
-     * 创建特征重要性图表
+     * 创建特征重要性图表，不打开窗口
      */
-    public static void createFeatureImportanceChart(String title, Map<String, Double> featureImportance) {
+    public static JFreeChart buildFeatureImportanceChart(String title, Map<String, Double> featureImportance) {
         // 创建数据集
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
 
@@ -522,17 +624,6 @@ public class ChartGenerator {
         renderer.setDrawBarOutline(false);
         renderer.setItemMargin(0.1);
 
-        // 显示图表
-        ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(800, 500));
-
-        JFrame frame = new JFrame(title);
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setContentPane(chartPanel);
-        frame.pack();
-        frame.setLocationRelativeTo(null);
-        frame.setVisible(true);
-
-        logger.info("Feature importance chart created and displayed: {}", title);
+        return chart;
     }
 }
\ No newline at end of file
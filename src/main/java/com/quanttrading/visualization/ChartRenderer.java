@@ -0,0 +1,136 @@
+package com.quanttrading.visualization;
+
+import org.jfree.chart.ChartUtils;
+import org.jfree.chart.JFreeChart;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * 无窗口的批量图表渲染器
+ * 图表直接绘制到内存图像并保存为PNG文件，不创建任何Swing窗口，也不经过事件分发线程，
+ * 可在java.awt.headless=true的服务器上运行。每个渲染任务在工作线程上独立创建并绘制自己的图表，多个任务并行执行。
+ */
+public class ChartRenderer {
+    private static final Logger logger = LoggerFactory.getLogger(ChartRenderer.class);
+
+    private final File outputDirectory;
+    private final int width;
+    private final int height;
+    private final int numThreads;
+
+    /**
+     * @param outputDirectory 输出目录，不存在时自动创建
+     * @param width 图片宽度（像素）
+     * @param height 图片高度（像素）
+     * @param numThreads 并行线程数，0表示使用全部处理器
+     */
+    public ChartRenderer(File outputDirectory, int width, int height, int numThreads) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Chart width and height must be positive");
+        }
+        if (numThreads < 0) {
+            throw new IllegalArgumentException("Number of threads must not be negative");
+        }
+        this.outputDirectory = outputDirectory;
+        this.width = width;
+        this.height = height;
+        this.numThreads = numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * 渲染单个图表
+     * @param chart 图表
+     * @param fileName 文件名（不含目录），未以.png结尾时自动补上
+     * @return 写入的文件
+     * @throws IOException 写入失败时
+     */
+    public File render(JFreeChart chart, String fileName) throws IOException {
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs() && !outputDirectory.isDirectory()) {
+            throw new IOException("Cannot create output directory: " + outputDirectory);
+        }
+        File file = new File(outputDirectory, fileName.endsWith(".png") ? fileName : fileName + ".png");
+        ChartUtils.saveChartAsPNG(file, chart, width, height);
+        return file;
+    }
+
+    /**
+     * 并行渲染一批图表，单个任务失败只记录日志，不影响其他任务
+     * @param jobs 渲染任务
+     * @return 成功写入的文件，按任务顺序排列
+     */
+    public List<File> renderAll(List<Job> jobs) {
+        List<File> files = new ArrayList<>();
+        if (jobs.isEmpty()) {
+            return files;
+        }
+
+        long startTime = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(numThreads, jobs.size()));
+        try {
+            List<Future<File>> futures = new ArrayList<>(jobs.size());
+            for (Job job : jobs) {
+                futures.add(executor.submit(() -> render(job.chartFactory.get(), job.fileName)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    files.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    logger.error("Error rendering chart {}: {}", jobs.get(i).fileName, e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Chart rendering interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        logger.info("Rendered {} of {} charts to {} in {} ms using {} threads",
+                files.size(), jobs.size(), outputDirectory, System.currentTimeMillis() - startTime,
+                Math.min(numThreads, jobs.size()));
+        return files;
+    }
+
+    public File getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    /**
+     * 渲染任务：输出文件名和在工作线程上创建图表的工厂
+     */
+    public static final class Job {
+        private final String fileName;
+        private final Supplier<JFreeChart> chartFactory;
+
+        public Job(String fileName, Supplier<JFreeChart> chartFactory) {
+            this.fileName = fileName;
+            this.chartFactory = chartFactory;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+    }
+}
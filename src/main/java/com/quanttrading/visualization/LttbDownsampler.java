@@ -0,0 +1,106 @@
+package com.quanttrading.visualization;
+
+import java.util.Arrays;
+
+/**
+ * 最大三角形三桶（Largest-Triangle-Three-Buckets）降采样
+ * 首尾两点固定，其余数据按下标均分为threshold-2个桶，每个桶选出与前一个选中点、下一个桶均值点构成三角形面积最大的点，
+ * 在大幅减少点数的同时保留曲线的形状和极值。时间和内存与序列长度成线性关系，输出点数有上界。
+ */
+public final class LttbDownsampler {
+
+    private LttbDownsampler() {
+    }
+
+    /**
+     * 选出要保留的数据点
+     * @param values 按时间顺序排列的数值，横坐标取下标
+     * @param threshold 目标点数，小于3或不小于数据点数时保留全部
+     * @return 升序排列的保留下标
+     */
+    public static int[] select(double[] values, int threshold) {
+        int n = values.length;
+        if (threshold < 3 || threshold >= n) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] sampled = new int[threshold];
+        int count = 0;
+        double every = (double) (n - 2) / (threshold - 2);
+
+        int a = 0;
+        sampled[count++] = a;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // 下一个桶的均值点
+            int averageFrom = (int) ((bucket + 1) * every) + 1;
+            int averageTo = Math.min((int) ((bucket + 2) * every) + 1, n);
+            double averageX = 0;
+            double averageY = 0;
+            for (int j = averageFrom; j < averageTo; j++) {
+                averageX += j;
+                averageY += values[j];
+            }
+            int averageLength = averageTo - averageFrom;
+            averageX /= averageLength;
+            averageY /= averageLength;
+
+            // 当前桶中与a和均值点构成最大三角形的点
+            int from = (int) (bucket * every) + 1;
+            int to = (int) ((bucket + 1) * every) + 1;
+            double ay = values[a];
+            double maxArea = -1;
+            int next = from;
+            for (int j = from; j < to; j++) {
+                double area = Math.abs((a - averageX) * (values[j] - ay) - (a - j) * (averageY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            sampled[count++] = next;
+            a = next;
+        }
+        sampled[count] = n - 1;
+        return sampled;
+    }
+
+    /**
+     * 选出要保留的数据点，并保证指定下标一定保留（如交易信号所在的交易日）
+     * @param mustKeep 必须保留的下标，可为null，越界的下标被忽略
+     * @return 升序排列的保留下标，点数不超过threshold加必须保留的点数
+     */
+    public static int[] select(double[] values, int threshold, int[] mustKeep) {
+        int[] sampled = select(values, threshold);
+        if (mustKeep == null || mustKeep.length == 0 || sampled.length == values.length) {
+            return sampled;
+        }
+
+        int[] keep = mustKeep.clone();
+        Arrays.sort(keep);
+
+        // 合并两个升序数组并去重
+        int[] merged = new int[sampled.length + keep.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sampled.length || j < keep.length) {
+            int next;
+            if (j >= keep.length || (i < sampled.length && sampled[i] <= keep[j])) {
+                next = sampled[i++];
+            } else {
+                next = keep[j++];
+                if (next < 0 || next >= values.length) {
+                    continue;
+                }
+            }
+            if (count == 0 || merged[count - 1] != next) {
+                merged[count++] = next;
+            }
+        }
+        return Arrays.copyOf(merged, count);
+    }
+}
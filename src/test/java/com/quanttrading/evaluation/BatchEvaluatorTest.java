@@ -0,0 +1,114 @@
+package com.quanttrading.evaluation;
+
+import com.quanttrading.model.PriceSeries;
+import com.quanttrading.model.StockData;
+import com.quanttrading.model.TradeSignal;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 校验批量评估的结果与默认参数的ExecutionSimulator加指标注册表的结果一致
+ */
+public class BatchEvaluatorTest {
+    private static final double TOLERANCE = 1e-12;
+    private static final LocalDate START = LocalDate.of(2022, 1, 3);
+
+    @Test
+    public void matchesExecutionSimulatorDefaults() {
+        PriceSeries series = PriceSeries.of(randomBars(250, 1));
+        EvaluationParameters parameters = parameters();
+        List<Map<LocalDate, TradeSignal>> signalSets = new ArrayList<>();
+        Random random = new Random(2);
+        // 超过一个并行块，覆盖分块边界
+        for (int v = 0; v < 150; v++) {
+            signalSets.add(randomSignals(series.size(), random));
+        }
+
+        BatchResult batch = new BatchEvaluator(series, parameters).evaluateAll(signalSets);
+
+        ExecutionSimulator simulator = new ExecutionSimulator(parameters);
+        for (int v = 0; v < signalSets.size(); v++) {
+            Map<String, Double> expected = StrategyEvaluator.evaluateBacktest(simulator.simulate(series, signalSets.get(v)));
+            Map<String, Double> actual = batch.toMap(v);
+            for (Map.Entry<String, Double> metric : actual.entrySet()) {
+                assertEquals("variant " + v + ", " + metric.getKey(),
+                        expected.get(metric.getKey()), metric.getValue(), TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    public void encodesSignalsByTradingDay() {
+        List<StockData> bars = randomBars(5, 3);
+        BatchEvaluator evaluator = new BatchEvaluator(bars, null);
+
+        Map<LocalDate, TradeSignal> signals = new HashMap<>();
+        signals.put(START.plusDays(1), TradeSignal.BUY);
+        signals.put(START.plusDays(2), TradeSignal.HOLD);
+        signals.put(START.plusDays(3), TradeSignal.SELL);
+        signals.put(START.plusDays(30), TradeSignal.SELL);
+
+        assertArrayEquals(new byte[]{BatchEvaluator.HOLD, BatchEvaluator.BUY, BatchEvaluator.HOLD,
+                BatchEvaluator.SELL, BatchEvaluator.HOLD}, evaluator.encode(signals));
+    }
+
+    @Test
+    public void setWithoutTradesScoresZero() {
+        BatchEvaluator evaluator = new BatchEvaluator(PriceSeries.of(randomBars(50, 4)), parameters());
+        BatchResult result = evaluator.evaluate(new byte[][]{new byte[evaluator.size()]});
+
+        for (int metric = 0; metric < BatchResult.NUM_METRICS; metric++) {
+            assertEquals(0.0, result.get(0, metric), 0.0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMisalignedSignals() {
+        BatchEvaluator evaluator = new BatchEvaluator(PriceSeries.of(randomBars(50, 5)), parameters());
+        evaluator.evaluate(new byte[][]{new byte[evaluator.size() - 1]});
+    }
+
+    private static EvaluationParameters parameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("initialCapital", 10000.0);
+        parameters.put("transactionFee", 0.001);
+        parameters.put("riskFreeRate", 0.02);
+        parameters.put("tradingDaysPerYear", 252);
+        return EvaluationParameters.fromMap(parameters);
+    }
+
+    private static Map<LocalDate, TradeSignal> randomSignals(int length, Random random) {
+        Map<LocalDate, TradeSignal> signals = new HashMap<>();
+        for (int i = 0; i < length; i++) {
+            double u = random.nextDouble();
+            if (u < 0.05) {
+                signals.put(START.plusDays(i), TradeSignal.BUY);
+            } else if (u < 0.10) {
+                signals.put(START.plusDays(i), TradeSignal.SELL);
+            } else if (u < 0.12) {
+                signals.put(START.plusDays(i), TradeSignal.HOLD);
+            }
+        }
+        return signals;
+    }
+
+    private static List<StockData> randomBars(int length, long seed) {
+        Random random = new Random(seed);
+        List<StockData> bars = new ArrayList<>(length);
+        double price = 100;
+        for (int i = 0; i < length; i++) {
+            price *= 1 + 0.01 * random.nextGaussian();
+            bars.add(new StockData("TEST", START.plusDays(i), price, price, price, price, 1000));
+        }
+        return bars;
+    }
+}
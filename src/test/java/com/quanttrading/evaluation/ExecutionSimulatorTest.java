@@ -0,0 +1,163 @@
+package com.quanttrading.evaluation;
+
+import com.quanttrading.model.PriceSeries;
+import com.quanttrading.model.StockData;
+import com.quanttrading.model.TradeSignal;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 按手工推导的现金、持股和成交价校验建仓比例、买卖价差和滑点的记账
+ */
+public class ExecutionSimulatorTest {
+    private static final double TOLERANCE = 1e-9;
+    private static final LocalDate START = LocalDate.of(2023, 3, 1);
+    private static final double CAPITAL = 10000.0;
+    private static final double FEE = 0.001;
+
+    @Test
+    public void defaultsFillAtCloseWithFeesOnly() {
+        PriceSeries series = series(new double[]{100, 110, 120, 121}, 1000);
+        BacktestResult result = new ExecutionSimulator(parameters()).simulate(series, signals(0, 2));
+
+        double shares = (CAPITAL - CAPITAL * FEE) / 100;
+        double amount = shares * 120;
+        double cash = amount - amount * FEE;
+
+        TradeLedger ledger = result.getTradeLedger();
+        assertEquals(1, ledger.size());
+        assertEquals(100, ledger.entryPriceAt(0), TOLERANCE);
+        assertEquals(120, ledger.exitPriceAt(0), TOLERANCE);
+        assertEquals(shares, ledger.quantityAt(0), TOLERANCE);
+        assertEquals(CAPITAL * FEE + amount * FEE, ledger.costAt(0), TOLERANCE);
+        assertEquals(0.2 - 2 * FEE, ledger.profitAt(0), TOLERANCE);
+
+        EquityCurve curve = result.getEquityCurve();
+        assertEquals(CAPITAL, curve.valueAt(0), TOLERANCE);
+        assertEquals(shares * 110, curve.valueAt(1), TOLERANCE);
+        assertEquals(shares * 120, curve.valueAt(2), TOLERANCE);
+        assertEquals(cash, curve.valueAt(3), TOLERANCE);
+        assertEquals(cash, curve.getFinalValue(), TOLERANCE);
+    }
+
+    @Test
+    public void accountsForSizingSpreadAndSlippage() {
+        PriceSeries series = series(new double[]{100, 110, 120, 121}, 1000);
+        ExecutionSimulator simulator = new ExecutionSimulator(parameters())
+                .setPositionSize(0.5)
+                .setSpread(0.02)
+                .setSlippageModel(SlippageModel.fixed(0.001));
+        BacktestResult result = simulator.simulate(series, signals(0, 2));
+
+        // 买入：一半现金，手续费从预算中扣除，成交价加半个价差和滑点
+        double budget = 0.5 * CAPITAL;
+        double buyFee = budget * FEE;
+        double entryPrice = 100 * 1.01 * 1.001;
+        double shares = (budget - buyFee) / entryPrice;
+        double cash = CAPITAL - budget;
+
+        // 卖出：成交价减半个价差和滑点
+        double exitPrice = 120 * 0.99 * 0.999;
+        double amount = shares * exitPrice;
+        double sellFee = amount * FEE;
+        double finalCash = cash + amount - sellFee;
+
+        TradeLedger ledger = result.getTradeLedger();
+        assertEquals(1, ledger.size());
+        assertEquals(0, ledger.entryIndexAt(0));
+        assertEquals(2, ledger.exitIndexAt(0));
+        assertEquals(entryPrice, ledger.entryPriceAt(0), TOLERANCE);
+        assertEquals(exitPrice, ledger.exitPriceAt(0), TOLERANCE);
+        assertEquals(shares, ledger.quantityAt(0), TOLERANCE);
+        assertEquals(buyFee + shares * (entryPrice - 100) + sellFee + shares * (120 - exitPrice),
+                ledger.costAt(0), TOLERANCE);
+        assertEquals((exitPrice - entryPrice) / entryPrice - 2 * FEE, ledger.profitAt(0), TOLERANCE);
+
+        // 持仓按收盘价估值，未投入的现金保持不变
+        EquityCurve curve = result.getEquityCurve();
+        assertEquals(cash + shares * 110, curve.valueAt(1), TOLERANCE);
+        assertEquals(cash + shares * 120, curve.valueAt(2), TOLERANCE);
+        assertEquals(finalCash, curve.valueAt(3), TOLERANCE);
+        assertEquals(finalCash, curve.getFinalValue(), TOLERANCE);
+    }
+
+    @Test
+    public void liquidatesOpenPositionWithVolumeImpact() {
+        PriceSeries series = series(new double[]{50, 52, 49, 55}, 200);
+        ExecutionSimulator simulator = new ExecutionSimulator(parameters())
+                .setSpread(0.01)
+                .setSlippageModel(SlippageModel.volumeImpact(0.1));
+        Map<LocalDate, TradeSignal> signals = new HashMap<>();
+        signals.put(START.plusDays(1), TradeSignal.BUY);
+        signals.put(START.plusDays(2), TradeSignal.BUY); // 持仓时重复买入被忽略
+        BacktestResult result = simulator.simulate(series, signals);
+
+        double buyFee = CAPITAL * FEE;
+        double buySlippage = 0.1 * Math.sqrt((CAPITAL - buyFee) / 52 / 200);
+        double entryPrice = 52 * 1.005 * (1 + buySlippage);
+        double shares = (CAPITAL - buyFee) / entryPrice;
+        double sellSlippage = 0.1 * Math.sqrt(shares / 200);
+        double exitPrice = 55 * 0.995 * (1 - sellSlippage);
+        double amount = shares * exitPrice;
+
+        TradeLedger ledger = result.getTradeLedger();
+        assertEquals(1, ledger.size());
+        assertEquals(1, ledger.entryIndexAt(0));
+        assertEquals(3, ledger.exitIndexAt(0));
+        assertEquals(entryPrice, ledger.entryPriceAt(0), TOLERANCE);
+        assertEquals(exitPrice, ledger.exitPriceAt(0), TOLERANCE);
+        assertEquals(shares, ledger.quantityAt(0), TOLERANCE);
+        assertEquals(amount - amount * FEE, result.getEquityCurve().getFinalValue(), TOLERANCE);
+        assertEquals(shares * 55, result.getEquityCurve().valueAt(3), TOLERANCE);
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        ExecutionSimulator original = new ExecutionSimulator(parameters()).setPositionSize(0.25).setSpread(0.01);
+        ExecutionSimulator copy = original.copy().setPositionSize(1.0).setSpread(0.0);
+
+        assertEquals(0.25, original.getPositionSize(), 0.0);
+        assertEquals(0.01, original.getSpread(), 0.0);
+        assertEquals(1.0, copy.getPositionSize(), 0.0);
+        assertEquals(original.getSlippageModel(), copy.getSlippageModel());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyPosition() {
+        new ExecutionSimulator(parameters()).setPositionSize(0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsFullSpread() {
+        new ExecutionSimulator(parameters()).setSpread(1.0);
+    }
+
+    private static EvaluationParameters parameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("initialCapital", CAPITAL);
+        parameters.put("transactionFee", FEE);
+        return EvaluationParameters.fromMap(parameters);
+    }
+
+    private static Map<LocalDate, TradeSignal> signals(int buy, int sell) {
+        Map<LocalDate, TradeSignal> signals = new HashMap<>();
+        signals.put(START.plusDays(buy), TradeSignal.BUY);
+        signals.put(START.plusDays(sell), TradeSignal.SELL);
+        return signals;
+    }
+
+    private static PriceSeries series(double[] closes, long volume) {
+        List<StockData> bars = new ArrayList<>(closes.length);
+        for (int i = 0; i < closes.length; i++) {
+            bars.add(new StockData("TEST", START.plusDays(i), closes[i], closes[i], closes[i], closes[i], volume));
+        }
+        return PriceSeries.of(bars);
+    }
+}
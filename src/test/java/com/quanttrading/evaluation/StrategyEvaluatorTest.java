@@ -0,0 +1,82 @@
+package com.quanttrading.evaluation;
+
+import com.quanttrading.model.StockData;
+import com.quanttrading.model.TradeSignal;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 在固定序列上校验evaluateStrategy与重构前各指标的结果逐位一致
+ */
+public class StrategyEvaluatorTest {
+    private static final double[] CLOSES = {
+            100.0, 101.5, 99.8, 102.3, 104.0, 103.1, 105.6, 107.2, 106.0, 104.5,
+            103.8, 105.9, 108.4, 110.1, 109.3, 107.7, 106.2, 108.8, 111.5, 113.0,
+            112.2, 110.6, 109.9, 112.4, 114.8, 116.1, 115.0, 113.7, 115.9, 117.3
+    };
+    private static final LocalDate START = LocalDate.of(2023, 1, 2);
+
+    // 重构前AnnualizedReturn/SharpeRatio/MaximumDrawdown/WinRate在同一输入上的结果
+    private static final double BASELINE_ANNUAL_RETURN = 2.925465963688563;
+    private static final double BASELINE_SHARPE_RATIO = 5.327193027487861;
+    private static final double BASELINE_MAX_DRAWDOWN = 0.02473003640054499;
+    private static final double BASELINE_WIN_RATE = 0.6666666666666666;
+
+    private List<StockData> stockData;
+    private Map<LocalDate, TradeSignal> signals;
+    private Map<String, Object> parameters;
+
+    @Before
+    public void setUp() {
+        stockData = new ArrayList<>();
+        for (int i = 0; i < CLOSES.length; i++) {
+            double close = CLOSES[i];
+            stockData.add(new StockData("TEST", START.plusDays(i), close, close, close, close, 1000));
+        }
+
+        // 两笔盈利、一笔亏损的交易，外加HOLD、重复SELL和超出序列范围的信号
+        signals = new HashMap<>();
+        signals.put(START.plusDays(2), TradeSignal.BUY);
+        signals.put(START.plusDays(7), TradeSignal.SELL);
+        signals.put(START.plusDays(12), TradeSignal.HOLD);
+        signals.put(START.plusDays(13), TradeSignal.BUY);
+        signals.put(START.plusDays(15), TradeSignal.SELL);
+        signals.put(START.plusDays(16), TradeSignal.SELL);
+        signals.put(START.plusDays(22), TradeSignal.BUY);
+        signals.put(START.plusDays(40), TradeSignal.SELL);
+
+        parameters = new HashMap<>();
+        parameters.put("initialCapital", 10000.0);
+        parameters.put("transactionFee", 0.001);
+        parameters.put("riskFreeRate", 0.02);
+        parameters.put("tradingDaysPerYear", 252);
+    }
+
+    @Test
+    public void matchesBaselineMetrics() {
+        assertBaseline(StrategyEvaluator.evaluateStrategy(stockData, signals, parameters));
+    }
+
+    @Test
+    public void ignoresInputOrder() {
+        List<StockData> reversed = new ArrayList<>(stockData);
+        Collections.reverse(reversed);
+        assertBaseline(StrategyEvaluator.evaluateStrategy(reversed, signals, parameters));
+    }
+
+    private static void assertBaseline(Map<String, Double> results) {
+        assertEquals(BASELINE_ANNUAL_RETURN, results.get("annualReturn"), 0.0);
+        assertEquals(BASELINE_SHARPE_RATIO, results.get("sharpeRatio"), 0.0);
+        assertEquals(BASELINE_MAX_DRAWDOWN, results.get("maxDrawdown"), 0.0);
+        assertEquals(BASELINE_WIN_RATE, results.get("winRate"), 0.0);
+    }
+}
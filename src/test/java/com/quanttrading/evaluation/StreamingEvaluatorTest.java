@@ -0,0 +1,110 @@
+package com.quanttrading.evaluation;
+
+import com.quanttrading.model.PriceSeries;
+import com.quanttrading.model.StockData;
+import com.quanttrading.model.TradeSignal;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 校验逐根K线更新的指标与在同一段行情上运行默认参数的ExecutionSimulator的结果一致
+ */
+public class StreamingEvaluatorTest {
+    private static final double TOLERANCE = 1e-12;
+    private static final LocalDate START = LocalDate.of(2022, 1, 3);
+
+    @Test
+    public void matchesExecutionSimulatorAfterEveryCheckpoint() {
+        List<StockData> bars = randomBars(300, 11);
+        Map<LocalDate, TradeSignal> signals = randomSignals(bars.size(), new Random(12));
+        Map<String, Object> parameters = parameters();
+        ExecutionSimulator simulator = new ExecutionSimulator(EvaluationParameters.fromMap(parameters));
+
+        StreamingEvaluator evaluator = new StreamingEvaluator(parameters);
+        for (int i = 0; i < bars.size(); i++) {
+            StockData bar = bars.get(i);
+            evaluator.update(bar, signals.get(bar.getDate()));
+
+            // 每50根K线与前缀行情上的完整回测比较，包括仍持仓的情况
+            if ((i + 1) % 50 == 0) {
+                PriceSeries prefix = PriceSeries.of(bars.subList(0, i + 1));
+                Map<String, Double> expected = StrategyEvaluator.evaluateBacktest(simulator.simulate(prefix, signals));
+                for (Map.Entry<String, Double> metric : evaluator.getMetrics().entrySet()) {
+                    assertEquals("bar " + i + ", " + metric.getKey(),
+                            expected.get(metric.getKey()), metric.getValue(), TOLERANCE);
+                }
+            }
+        }
+        assertEquals(bars.size(), evaluator.getNumBars());
+    }
+
+    @Test
+    public void resetStartsOver() {
+        List<StockData> bars = randomBars(60, 13);
+        Map<LocalDate, TradeSignal> signals = randomSignals(bars.size(), new Random(14));
+        StreamingEvaluator evaluator = new StreamingEvaluator(parameters());
+        for (StockData bar : bars) {
+            evaluator.update(bar, signals.get(bar.getDate()));
+        }
+        Map<String, Double> first = evaluator.getMetrics();
+
+        evaluator.reset();
+        assertEquals(10000.0, evaluator.getCurrentValue(), 0.0);
+        for (StockData bar : bars) {
+            evaluator.update(bar, signals.get(bar.getDate()));
+        }
+        assertEquals(first, evaluator.getMetrics());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOutOfOrderBars() {
+        StreamingEvaluator evaluator = new StreamingEvaluator();
+        evaluator.update(START.plusDays(1), 100.0, TradeSignal.BUY);
+        evaluator.update(START, 101.0, TradeSignal.SELL);
+    }
+
+    private static Map<String, Object> parameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("initialCapital", 10000.0);
+        parameters.put("transactionFee", 0.001);
+        parameters.put("riskFreeRate", 0.02);
+        parameters.put("tradingDaysPerYear", 252);
+        return parameters;
+    }
+
+    /**
+     * 第一根K线买入，保证每个检查点都有成交
+     */
+    private static Map<LocalDate, TradeSignal> randomSignals(int length, Random random) {
+        Map<LocalDate, TradeSignal> signals = new HashMap<>();
+        signals.put(START, TradeSignal.BUY);
+        for (int i = 1; i < length; i++) {
+            double u = random.nextDouble();
+            if (u < 0.05) {
+                signals.put(START.plusDays(i), TradeSignal.BUY);
+            } else if (u < 0.10) {
+                signals.put(START.plusDays(i), TradeSignal.SELL);
+            }
+        }
+        return signals;
+    }
+
+    private static List<StockData> randomBars(int length, long seed) {
+        Random random = new Random(seed);
+        List<StockData> bars = new ArrayList<>(length);
+        double price = 100;
+        for (int i = 0; i < length; i++) {
+            price *= 1 + 0.01 * random.nextGaussian();
+            bars.add(new StockData("TEST", START.plusDays(i), price, price, price, price, 1000));
+        }
+        return bars;
+    }
+}
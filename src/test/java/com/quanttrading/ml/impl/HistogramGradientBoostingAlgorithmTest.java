@@ -0,0 +1,91 @@
+package com.quanttrading.ml.impl;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 校验编译为扁平数组的森林与训练时按分箱编号遍历的树给出相同的预测
+ */
+public class HistogramGradientBoostingAlgorithmTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void compiledForestMatchesBinnedTrees() {
+        // 连续特征的不同值超过maxBins，按分位数分箱；离散特征的不同值少，按中点分箱
+        double[][] features = randomFeatures(1200, 13);
+        double[] labels = labels(features);
+
+        HistogramGradientBoostingAlgorithm algorithm = new HistogramGradientBoostingAlgorithm(40, 0.1, 5);
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("earlyStoppingRounds", 0);
+        algorithm.setParameters(parameters);
+
+        HistogramGradientBoostingAlgorithm.Trainer trainer = algorithm.new Trainer(features, labels);
+        HistogramGradientBoostingAlgorithm.CompiledForest forest = trainer.fit();
+
+        double[] binnedScores = trainer.getScores();
+        for (int i = 0; i < features.length; i++) {
+            assertEquals("sample " + i, binnedScores[i], forest.predict(features[i]), 0.0);
+        }
+    }
+
+    @Test
+    public void batchAndSinglePredictionsAgree() {
+        double[][] features = randomFeatures(600, 17);
+        HistogramGradientBoostingAlgorithm algorithm = new HistogramGradientBoostingAlgorithm(30, 0.1, 4);
+        algorithm.train(features, labels(features));
+
+        double[][] probes = randomFeatures(50, 18);
+        double[] batch = algorithm.predict(probes);
+        for (int i = 0; i < probes.length; i++) {
+            assertEquals(algorithm.predict(probes[i]), batch[i], 0.0);
+        }
+    }
+
+    @Test
+    public void savedModelPredictsIdentically() throws Exception {
+        double[][] features = randomFeatures(500, 23);
+        HistogramGradientBoostingAlgorithm algorithm = new HistogramGradientBoostingAlgorithm(20, 0.2, 3);
+        algorithm.train(features, labels(features));
+
+        String path = new File(folder.getRoot(), "hgb.bin").getPath();
+        assertTrue(algorithm.saveModel(path));
+        HistogramGradientBoostingAlgorithm loaded = new HistogramGradientBoostingAlgorithm();
+        assertTrue(loaded.loadModel(path));
+
+        double[][] probes = randomFeatures(50, 24);
+        assertArrayEquals(algorithm.predict(probes), loaded.predict(probes), 0.0);
+    }
+
+    private static double[][] randomFeatures(int rows, long seed) {
+        Random random = new Random(seed);
+        double[][] features = new double[rows][3];
+        for (double[] row : features) {
+            row[0] = random.nextGaussian();
+            row[1] = random.nextDouble() * 10;
+            row[2] = random.nextInt(8);
+        }
+        return features;
+    }
+
+    private static double[] labels(double[][] features) {
+        double[] labels = new double[features.length];
+        for (int i = 0; i < features.length; i++) {
+            double[] row = features[i];
+            labels[i] = 3 * row[0] + Math.sin(row[1]) + (row[2] > 3 ? 2 : -1) + 0.1 * row[0] * row[2];
+        }
+        return labels;
+    }
+}
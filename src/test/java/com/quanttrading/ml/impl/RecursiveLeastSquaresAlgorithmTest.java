@@ -0,0 +1,124 @@
+package com.quanttrading.ml.impl;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 校验RLS逐条更新的结果与批量（加权）最小二乘的闭式解一致
+ * 初始协方差为δI时，RLS等价于对全部权重（含截距）施加λ^n/δ的岭惩罚
+ */
+public class RecursiveLeastSquaresAlgorithmTest {
+    private static final double TOLERANCE = 1e-6;
+
+    @Test
+    public void matchesBatchLeastSquares() {
+        double[][] features = randomFeatures(200, 4, 11);
+        double[] labels = linearLabels(features, 0.5);
+
+        RecursiveLeastSquaresAlgorithm rls = new RecursiveLeastSquaresAlgorithm(1.0, 1000.0);
+        rls.train(features, labels);
+
+        double[][] probes = randomFeatures(20, 4, 12);
+        assertArrayEquals(batchPredictions(features, labels, 1.0, 1000.0, probes), rls.predict(probes), TOLERANCE);
+    }
+
+    @Test
+    public void matchesExponentiallyWeightedLeastSquares() {
+        double[][] features = randomFeatures(150, 3, 21);
+        double[] labels = linearLabels(features, 1.0);
+
+        RecursiveLeastSquaresAlgorithm rls = new RecursiveLeastSquaresAlgorithm(0.98, 100.0);
+        rls.train(features, labels);
+
+        double[][] probes = randomFeatures(20, 3, 22);
+        assertArrayEquals(batchPredictions(features, labels, 0.98, 100.0, probes), rls.predict(probes), TOLERANCE);
+    }
+
+    @Test
+    public void onlineUpdatesContinueTraining() {
+        double[][] features = randomFeatures(120, 3, 31);
+        double[] labels = linearLabels(features, 0.2);
+
+        RecursiveLeastSquaresAlgorithm batch = new RecursiveLeastSquaresAlgorithm(0.995, 1000.0);
+        batch.train(features, labels);
+
+        RecursiveLeastSquaresAlgorithm online = new RecursiveLeastSquaresAlgorithm(0.995, 1000.0);
+        online.train(Arrays.copyOf(features, 80), Arrays.copyOf(labels, 80));
+        for (int i = 80; i < features.length; i++) {
+            online.update(features[i], labels[i]);
+        }
+
+        assertEquals(features.length, online.getNumUpdates());
+        double[][] probes = randomFeatures(10, 3, 32);
+        assertArrayEquals(batch.predict(probes), online.predict(probes), 1e-12);
+    }
+
+    private static double[][] randomFeatures(int rows, int columns, long seed) {
+        Random random = new Random(seed);
+        double[][] features = new double[rows][columns];
+        for (double[] row : features) {
+            for (int j = 0; j < columns; j++) {
+                row[j] = random.nextGaussian();
+            }
+        }
+        return features;
+    }
+
+    private static double[] linearLabels(double[][] features, double noise) {
+        Random random = new Random(99);
+        double[] labels = new double[features.length];
+        for (int i = 0; i < features.length; i++) {
+            double y = 2.0;
+            for (int j = 0; j < features[i].length; j++) {
+                y += (j + 1) * 0.7 * features[i][j];
+            }
+            labels[i] = y + noise * random.nextGaussian();
+        }
+        return labels;
+    }
+
+    /**
+     * 闭式解：w = (Σλ^(n-1-i)·x·x' + λ^n/δ·I)^(-1) · Σλ^(n-1-i)·x·y，x含截距项
+     */
+    private static double[] batchPredictions(double[][] features, double[] labels, double lambda,
+                                             double initialCovariance, double[][] probes) {
+        int n = features.length;
+        int dimension = features[0].length + 1;
+        RealMatrix normal = new Array2DRowRealMatrix(dimension, dimension);
+        RealVector moment = new ArrayRealVector(dimension);
+        for (int i = 0; i < n; i++) {
+            double weight = Math.pow(lambda, n - 1 - i);
+            RealVector x = withIntercept(features[i]);
+            normal = normal.add(x.outerProduct(x).scalarMultiply(weight));
+            moment = moment.add(x.mapMultiply(weight * labels[i]));
+        }
+        double penalty = Math.pow(lambda, n) / initialCovariance;
+        for (int d = 0; d < dimension; d++) {
+            normal.addToEntry(d, d, penalty);
+        }
+        RealVector weights = new LUDecomposition(normal).getSolver().solve(moment);
+
+        double[] predictions = new double[probes.length];
+        for (int i = 0; i < probes.length; i++) {
+            predictions[i] = weights.dotProduct(withIntercept(probes[i]));
+        }
+        return predictions;
+    }
+
+    private static RealVector withIntercept(double[] row) {
+        double[] values = new double[row.length + 1];
+        values[0] = 1.0;
+        System.arraycopy(row, 0, values, 1, row.length);
+        return new ArrayRealVector(values, false);
+    }
+}
@@ -0,0 +1,143 @@
+package com.quanttrading.ml.impl;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.EigenDecomposition;
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.QRDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 校验岭回归的权重与闭式解一致，以及Cholesky失败时回退到QR、SVD的结果
+ */
+public class RidgeRegressionAlgorithmTest {
+    private static final double TOLERANCE = 1e-8;
+
+    @Test
+    public void matchesClosedFormSolution() {
+        double[][] features = randomFeatures(300, 5, 3);
+        double[] labels = linearLabels(features);
+
+        RidgeRegressionAlgorithm ridge = new RidgeRegressionAlgorithm(2.5);
+        ridge.train(features, labels);
+
+        assertArrayEquals(closedForm(features, labels, 2.5), ridge.getWeights(), TOLERANCE);
+    }
+
+    @Test
+    public void incrementalUpdatesMatchFullTraining() {
+        double[][] features = randomFeatures(200, 4, 5);
+        double[] labels = linearLabels(features);
+
+        RidgeRegressionAlgorithm incremental = new RidgeRegressionAlgorithm(1.0);
+        incremental.train(Arrays.copyOf(features, 150), Arrays.copyOf(labels, 150));
+        for (int i = 150; i < features.length; i++) {
+            incremental.update(features[i], labels[i]);
+        }
+
+        assertEquals(features.length, incremental.getNumSamples());
+        assertArrayEquals(closedForm(features, labels, 1.0), incremental.getWeights(), TOLERANCE);
+    }
+
+    @Test
+    public void fallsBackToQrForIndefiniteSystems() {
+        // 负的正则化系数使矩阵不定但仍可逆，Cholesky分解失败
+        double[][] features = randomFeatures(100, 3, 7);
+        double[] labels = linearLabels(features);
+        double regularization = -(minEigenvalue(features) + 5.0);
+
+        RidgeRegressionAlgorithm ridge = new RidgeRegressionAlgorithm(regularization);
+        ridge.train(features, labels);
+
+        assertArrayEquals(closedForm(features, labels, regularization), ridge.getWeights(), 1e-6);
+    }
+
+    @Test
+    public void fallsBackToSvdForSingularSystems() {
+        // 无正则化且两列完全相同，矩阵奇异，取最小范数解
+        double[][] base = randomFeatures(120, 2, 9);
+        double[][] features = new double[base.length][];
+        for (int i = 0; i < base.length; i++) {
+            features[i] = new double[]{base[i][0], base[i][1], base[i][1]};
+        }
+        double[] labels = linearLabels(base);
+
+        RidgeRegressionAlgorithm ridge = new RidgeRegressionAlgorithm(0.0);
+        ridge.train(features, labels);
+
+        double[] weights = ridge.getWeights();
+        assertEquals(weights[2], weights[3], TOLERANCE);
+        assertArrayEquals(leastSquaresFit(base, labels), ridge.predict(features), 1e-6);
+    }
+
+    private static double[][] randomFeatures(int rows, int columns, long seed) {
+        Random random = new Random(seed);
+        double[][] features = new double[rows][columns];
+        for (double[] row : features) {
+            for (int j = 0; j < columns; j++) {
+                row[j] = random.nextGaussian() * (j + 1);
+            }
+        }
+        return features;
+    }
+
+    private static double[] linearLabels(double[][] features) {
+        Random random = new Random(42);
+        double[] labels = new double[features.length];
+        for (int i = 0; i < features.length; i++) {
+            double y = -1.5;
+            for (int j = 0; j < features[i].length; j++) {
+                y += (j % 2 == 0 ? 1.2 : -0.8) * features[i][j];
+            }
+            labels[i] = y + 0.3 * random.nextGaussian();
+        }
+        return labels;
+    }
+
+    private static RealMatrix design(double[][] features) {
+        double[][] rows = new double[features.length][];
+        for (int i = 0; i < features.length; i++) {
+            rows[i] = new double[features[i].length + 1];
+            rows[i][0] = 1.0;
+            System.arraycopy(features[i], 0, rows[i], 1, features[i].length);
+        }
+        return new Array2DRowRealMatrix(rows, false);
+    }
+
+    /**
+     * w = (X'X + λD)^(-1)X'y，D为除截距外的单位阵
+     */
+    private static double[] closedForm(double[][] features, double[] labels, double regularization) {
+        RealMatrix x = design(features);
+        RealMatrix normal = x.transpose().multiply(x);
+        for (int d = 1; d < normal.getRowDimension(); d++) {
+            normal.addToEntry(d, d, regularization);
+        }
+        RealVector rhs = x.transpose().operate(new ArrayRealVector(labels));
+        return new LUDecomposition(normal).getSolver().solve(rhs).toArray();
+    }
+
+    private static double minEigenvalue(double[][] features) {
+        RealMatrix x = design(features);
+        double[] eigenvalues = new EigenDecomposition(
+                x.transpose().multiply(x)).getRealEigenvalues();
+        return Arrays.stream(eigenvalues).min().orElse(0.0);
+    }
+
+    /**
+     * 普通最小二乘在样本上的拟合值
+     */
+    private static double[] leastSquaresFit(double[][] features, double[] labels) {
+        RealMatrix x = design(features);
+        RealVector weights = new QRDecomposition(x).getSolver().solve(new ArrayRealVector(labels));
+        return x.operate(weights).toArray();
+    }
+}
@@ -0,0 +1,103 @@
+package com.quanttrading.ml.tuning;
+
+import com.quanttrading.ml.impl.RidgeRegressionAlgorithm;
+import com.quanttrading.strategy.impl.FeatureMatrixBuilder;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * 校验不同回看窗口的候选在相同样本行和折上评分，以及候选参数类型错误时直接失败
+ */
+public class HyperparameterTunerTest {
+
+    @Test
+    public void lookbacksShareRowsAndFolds() {
+        double[] prices = randomWalk(300, 5);
+        TimeSeriesCrossValidator validator = new TimeSeriesCrossValidator(
+                TimeSeriesCrossValidator.Mode.EXPANDING_WINDOW, 3, 2);
+        HyperparameterTuner tuner = new HyperparameterTuner("ridge", validator, 2);
+        tuner.addParameter(HyperparameterTuner.LOOKBACK_WINDOW, Arrays.<Object>asList(5, 20));
+
+        List<TuningResult> results = tuner.tune(prices, tuner.gridCandidates(), 10);
+        assertEquals(2, results.size());
+
+        // 两个候选都只使用回看窗口20也能构建的行，清洗间隔提高到20
+        int numSamples = prices.length - 20;
+        List<TimeSeriesCrossValidator.Fold> folds = new TimeSeriesCrossValidator(
+                TimeSeriesCrossValidator.Mode.EXPANDING_WINDOW, 3, 20).split(numSamples);
+        for (TuningResult result : results) {
+            int lookback = (Integer) result.getParameters().get(HyperparameterTuner.LOOKBACK_WINDOW);
+            assertArrayEquals(referenceScores(prices, lookback, numSamples, folds), result.getFoldScores(), 1e-9);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCandidateOfWrongType() {
+        HyperparameterTuner tuner = new HyperparameterTuner("ridge", new TimeSeriesCrossValidator(
+                TimeSeriesCrossValidator.Mode.EXPANDING_WINDOW, 3, 10), 1);
+        tuner.setBaseParameters(new RidgeRegressionAlgorithm().getParameters());
+        tuner.addParameter("regularization", Collections.<Object>singletonList(2));
+
+        tuner.tune(randomWalk(200, 7), tuner.gridCandidates(), 10);
+    }
+
+    @Test
+    public void failingCandidateAbortsTuning() {
+        // 没有基础参数时无法提前检查类型，错误在训练线程中暴露
+        HyperparameterTuner tuner = new HyperparameterTuner("ridge", new TimeSeriesCrossValidator(
+                TimeSeriesCrossValidator.Mode.EXPANDING_WINDOW, 3, 10), 1);
+        tuner.addParameter("regularization", Arrays.<Object>asList(1.0, 2));
+
+        try {
+            tuner.tune(randomWalk(200, 9), tuner.gridCandidates(), 10);
+            fail("Expected the failing candidate to abort tuning");
+        } catch (IllegalStateException e) {
+            assertEquals(ClassCastException.class, e.getCause().getClass());
+        }
+    }
+
+    private static double[] referenceScores(double[] prices, int lookback, int numSamples,
+                                            List<TimeSeriesCrossValidator.Fold> folds) {
+        FeatureMatrixBuilder builder = new FeatureMatrixBuilder(lookback);
+        double[][] features = builder.toRows(builder.build(prices), numSamples);
+        double[] scores = new double[folds.size()];
+        for (int k = 0; k < folds.size(); k++) {
+            int[] train = folds.get(k).getTrainIndices();
+            int[] test = folds.get(k).getTestIndices();
+            double[][] trainFeatures = new double[train.length][];
+            double[] trainLabels = new double[train.length];
+            for (int i = 0; i < train.length; i++) {
+                trainFeatures[i] = features[train[i]];
+                trainLabels[i] = prices[train[i]];
+            }
+            RidgeRegressionAlgorithm ridge = new RidgeRegressionAlgorithm();
+            ridge.train(trainFeatures, trainLabels);
+            double sum = 0;
+            for (int row : test) {
+                double error = ridge.predict(features[row]) - prices[row];
+                sum += error * error;
+            }
+            scores[k] = sum / test.length;
+        }
+        return scores;
+    }
+
+    private static double[] randomWalk(int length, long seed) {
+        Random random = new Random(seed);
+        double[] prices = new double[length];
+        double price = 100;
+        for (int i = 0; i < length; i++) {
+            price += random.nextGaussian();
+            prices[i] = price;
+        }
+        return prices;
+    }
+}
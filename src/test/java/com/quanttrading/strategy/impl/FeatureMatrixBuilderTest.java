@@ -0,0 +1,97 @@
+package com.quanttrading.strategy.impl;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 校验一次遍历构建的特征矩阵与原来逐个样本提取的特征一致
+ */
+public class FeatureMatrixBuilderTest {
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    public void matchesPerRowExtraction() {
+        double[] prices = randomWalk(300, 7);
+        for (int lookbackWindow : new int[]{1, 3, 5, 9, 10, 19, 20, 30}) {
+            FeatureMatrixBuilder builder = new FeatureMatrixBuilder(lookbackWindow);
+            int numSamples = builder.getNumSamples(prices.length);
+            double[][] rows = builder.toRows(builder.build(prices), numSamples);
+
+            assertEquals(prices.length - lookbackWindow, rows.length);
+            for (int i = 0; i < numSamples; i++) {
+                assertArrayEquals("lookback " + lookbackWindow + ", sample " + i,
+                        referenceFeatures(prices, i, lookbackWindow), rows[i], TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    public void buildsNothingForShortSeries() {
+        FeatureMatrixBuilder builder = new FeatureMatrixBuilder(10);
+        assertEquals(0, builder.getNumSamples(10));
+        assertEquals(0, builder.build(new double[10]).length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUndersizedBlock() {
+        FeatureMatrixBuilder builder = new FeatureMatrixBuilder(5);
+        builder.build(randomWalk(20, 1), new double[builder.getNumFeatures()]);
+    }
+
+    private static double[] randomWalk(int length, long seed) {
+        Random random = new Random(seed);
+        double[] prices = new double[length];
+        double price = 100.0;
+        for (int i = 0; i < length; i++) {
+            price *= 1 + 0.02 * random.nextGaussian();
+            prices[i] = price;
+        }
+        return prices;
+    }
+
+    /**
+     * 原来trainModel对每个样本构建历史列表后逐项计算特征的实现
+     */
+    private static double[] referenceFeatures(double[] prices, int sample, int lookbackWindow) {
+        List<Double> history = new ArrayList<>();
+        for (int j = sample + 1; j <= sample + lookbackWindow; j++) {
+            history.add(prices[j]);
+        }
+        double currentPrice = prices[sample];
+
+        List<Double> features = new ArrayList<>();
+        features.add(currentPrice);
+        features.addAll(history);
+
+        double prevPrice = history.get(0);
+        features.add(currentPrice - prevPrice);
+        features.add((currentPrice - prevPrice) / prevPrice);
+
+        for (int maWindow : new int[]{5, 10, 20}) {
+            if (history.size() >= maWindow) {
+                double ma = history.stream().limit(maWindow).mapToDouble(Double::doubleValue).average().orElse(currentPrice);
+                features.add(ma);
+                features.add(currentPrice - ma);
+            } else {
+                features.add(currentPrice);
+                features.add(0.0);
+            }
+        }
+
+        if (history.size() >= 5) {
+            double mean = history.stream().limit(5).mapToDouble(Double::doubleValue).average().orElse(currentPrice);
+            double sumSquaredDiff = history.stream().limit(5).mapToDouble(d -> Math.pow(d - mean, 2)).sum();
+            features.add(Math.sqrt(sumSquaredDiff / 5));
+        } else {
+            features.add(0.0);
+        }
+
+        return features.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+}
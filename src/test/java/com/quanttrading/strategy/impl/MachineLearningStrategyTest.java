@@ -0,0 +1,110 @@
+package com.quanttrading.strategy.impl;
+
+import com.quanttrading.ml.ModelRegistry;
+import com.quanttrading.ml.impl.SimpleRandomForestAlgorithm;
+import com.quanttrading.model.StockData;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 校验从模型缓存加载的模型在热启动时只用新增样本继续训练，不能继续时使用完整样本
+ */
+public class MachineLearningStrategyTest {
+    private static final int LOOKBACK_WINDOW = 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void warmStartContinuesFromCachedModel() {
+        List<StockData> bars = randomBars(140, 3);
+        ModelRegistry registry = new ModelRegistry(folder.getRoot().getPath(), Long.MAX_VALUE);
+
+        // 第一次训练写入缓存
+        RecordingForest first = warmForest(true);
+        strategy(first, registry).trainModel(bars.subList(0, 120));
+        assertEquals(Arrays.asList(120 - LOOKBACK_WINDOW), first.trainedSizes);
+
+        // 新实例命中缓存，不训练；之后只用新增的20根K线继续训练已加载的森林
+        RecordingForest second = warmForest(true);
+        MachineLearningStrategy strategy = strategy(second, registry);
+        strategy.trainModel(bars.subList(0, 120));
+        strategy.trainModel(bars);
+        assertEquals(Arrays.asList(20), second.trainedSizes);
+        assertEquals(Arrays.asList(true), second.continued);
+    }
+
+    @Test
+    public void fullRefitWhenTrainingCannotContinue() {
+        List<StockData> bars = randomBars(140, 5);
+        ModelRegistry registry = new ModelRegistry(folder.getRoot().getPath(), Long.MAX_VALUE);
+        strategy(warmForest(false), registry).trainModel(bars.subList(0, 120));
+
+        RecordingForest forest = warmForest(false);
+        MachineLearningStrategy strategy = strategy(forest, registry);
+        strategy.trainModel(bars.subList(0, 120));
+        strategy.trainModel(bars);
+        assertEquals(Arrays.asList(140 - LOOKBACK_WINDOW), forest.trainedSizes);
+        assertEquals(Arrays.asList(false), forest.continued);
+    }
+
+    private static MachineLearningStrategy strategy(RecordingForest forest, ModelRegistry registry) {
+        MachineLearningStrategy strategy = new MachineLearningStrategy(forest);
+        Map<String, Double> params = new HashMap<>();
+        params.put("lookbackWindow", (double) LOOKBACK_WINDOW);
+        strategy.setParameters(params);
+        strategy.setModelRegistry(registry);
+        return strategy;
+    }
+
+    private static RecordingForest warmForest(boolean warmStart) {
+        RecordingForest forest = new RecordingForest();
+        Map<String, Object> params = new HashMap<>();
+        params.put("warmStart", warmStart);
+        params.put("warmStartTrees", 2);
+        forest.setParameters(params);
+        return forest;
+    }
+
+    private static List<StockData> randomBars(int length, long seed) {
+        Random random = new Random(seed);
+        List<StockData> bars = new ArrayList<>(length);
+        LocalDate date = LocalDate.of(2024, 1, 1);
+        double price = 100;
+        for (int i = 0; i < length; i++) {
+            price += random.nextGaussian();
+            bars.add(new StockData("TEST", date.plusDays(i), price, price + 1, price - 1, price, 1000));
+        }
+        return bars;
+    }
+
+    /**
+     * 记录每次训练的样本数以及训练前能否继续训练
+     */
+    private static class RecordingForest extends SimpleRandomForestAlgorithm {
+        final List<Integer> trainedSizes = new ArrayList<>();
+        final List<Boolean> continued = new ArrayList<>();
+
+        RecordingForest() {
+            super(8, 4);
+        }
+
+        @Override
+        public void train(double[][] features, double[] labels) {
+            trainedSizes.add(features.length);
+            continued.add(canContinueTraining(features[0].length));
+            super.train(features, labels);
+        }
+    }
+}